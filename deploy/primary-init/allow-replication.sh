@@ -0,0 +1,5 @@
+#!/bin/sh
+set -e
+
+# Lets the replica service take its base backup and stream WAL with the superuser credentials.
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
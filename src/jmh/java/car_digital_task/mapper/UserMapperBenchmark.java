@@ -0,0 +1,120 @@
+package car_digital_task.mapper;
+
+import car_digital_task.dto.UserCreateRequest;
+import car_digital_task.dto.UserResponse;
+import car_digital_task.dto.UserSummary;
+import car_digital_task.dto.VerifiedToken;
+import car_digital_task.enums.RoleType;
+import car_digital_task.models.Role;
+import car_digital_task.models.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+    private User user;
+    private UserSummary summary;
+    private UserCreateRequest createRequest;
+    private VerifiedToken verifiedToken;
+
+    @Setup
+    public void setUp() {
+        RoleType roleType = RoleType.ROLE_USER;
+        user = User.builder()
+                .id(42L)
+                .username("benchmark.user")
+                .password("hash")
+                .firstName("Benchmark")
+                .lastName("User")
+                .email("benchmark@example.com")
+                .phoneNumber("+359888000000")
+                .birthDate(LocalDate.of(1990, 1, 1))
+                .role(Role.builder().id(roleType.getId()).name(roleType.name()).build())
+                .isEnabled(true)
+                .version(3L)
+                .build();
+        summary = new Summary(user);
+        createRequest = new UserCreateRequest("benchmark.user", "password", "Benchmark", "User",
+                "benchmark@example.com", "+359888000000", LocalDate.of(1990, 1, 1));
+        verifiedToken = new VerifiedToken("token-id", "benchmark.user", 42L, true, List.of(roleType.name()),
+                Instant.now(), Instant.now().plusSeconds(3600), 0);
+    }
+
+    @Benchmark
+    public UserResponse toResponseFromEntity() {
+        return UserMapper.toResponse(user);
+    }
+
+    @Benchmark
+    public UserResponse toResponseFromSummary() {
+        return UserMapper.toResponse(summary);
+    }
+
+    @Benchmark
+    public User toEntityFromCreateRequest() {
+        return UserMapper.toEntity(createRequest, "hash");
+    }
+
+    @Benchmark
+    public User toEntityFromToken() {
+        return UserMapper.toEntity(verifiedToken);
+    }
+
+    /**
+     * Stands in for the proxy Spring Data generates for native query projections.
+     */
+    private record Summary(User user) implements UserSummary {
+        @Override
+        public Long getId() {
+            return user.getId();
+        }
+
+        @Override
+        public String getFirstName() {
+            return user.getFirstName();
+        }
+
+        @Override
+        public String getLastName() {
+            return user.getLastName();
+        }
+
+        @Override
+        public String getEmail() {
+            return user.getEmail();
+        }
+
+        @Override
+        public String getPhoneNumber() {
+            return user.getPhoneNumber();
+        }
+
+        @Override
+        public LocalDate getBirthDate() {
+            return user.getBirthDate();
+        }
+
+        @Override
+        public Long getVersion() {
+            return user.getVersion();
+        }
+    }
+}
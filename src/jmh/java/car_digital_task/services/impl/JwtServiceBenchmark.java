@@ -0,0 +1,73 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.enums.RoleType;
+import car_digital_task.models.Role;
+import car_digital_task.models.User;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing and verification as done on login and on every authenticated request.
+ * {@code isTokenValid} goes through the verified token cache, {@code getAllClaimsFromToken} always
+ * parses and checks the signature.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+    private static final String SECRET_KEY = "c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0";
+
+    private JwtServiceImpl jwtService;
+    private UserDetailsImpl userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtServiceImpl(new VerifiedTokenCache(10_000, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        jwtService.initSigningKey();
+
+        RoleType roleType = RoleType.ROLE_USER;
+        User user = User.builder()
+                .id(42L)
+                .username("benchmark.user")
+                .password("$2a$10$benchmarkbenchmarkbenchmarkbenchmarkbenchmarkbenchma")
+                .role(Role.builder().id(roleType.getId()).name(roleType.name()).build())
+                .isEnabled(true)
+                .build();
+        userDetails = new UserDetailsImpl(user);
+        token = jwtService.generateToken(userDetails, 0);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userDetails, 0);
+    }
+
+    @Benchmark
+    public Claims getAllClaimsFromToken() {
+        return jwtService.getAllClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token, userDetails);
+    }
+}
@@ -0,0 +1,270 @@
+package car_digital_task.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Closed-loop load generator: {@code concurrency} virtual users each log in as a seeded user and
+ * then issue requests back to back, picking the endpoint by the weights in {@code mix}. Latencies
+ * recorded during the warmup are discarded; afterwards throughput and p50/p99/p999 latency are
+ * reported per endpoint.
+ */
+public class LoadDriver {
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final int NO_RESPONSE = -1;
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final SeedManifest seed;
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final List<Operation> weightedOperations;
+    private volatile boolean recording;
+    private volatile boolean running = true;
+    private volatile String adminCookie;
+
+    LoadDriver(HttpClient client, String baseUrl, SeedManifest seed, Map<Operation, Integer> mix) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.seed = seed;
+        this.weightedOperations = new ArrayList<>();
+        mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                weightedOperations.add(operation);
+            }
+        });
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = Settings.get("base-url", "http://localhost:8085");
+        int concurrency = Settings.getInt("concurrency", 64);
+        Duration warmup = Settings.getSeconds("warmup", 10);
+        Duration duration = Settings.getSeconds("duration", 60);
+        Map<Operation, Integer> mix = Operation.parseMix(Settings.get("mix", "login=5,search=25,get=55,patch=10,patch-by-id=5"));
+
+        ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        LoadDriver driver = new LoadDriver(client, baseUrl, SeedManifest.read(), mix);
+        if (mix.containsKey(Operation.PATCH_BY_ID)) {
+            driver.adminCookie = driver.login(Settings.get("admin-username", "admin"), Settings.get("admin-password", "cardigitaladmin"));
+            if (driver.adminCookie == null) {
+                throw new IllegalStateException("Service is too busy to log in as admin");
+            }
+        }
+
+        System.out.printf("Running %d virtual users against %s for %s after a %s warmup, mix %s%n",
+                concurrency, baseUrl, duration, warmup, mix);
+        for (int i = 0; i < concurrency; i++) {
+            workers.submit(driver::runVirtualUser);
+        }
+        Thread.sleep(warmup.toMillis());
+        driver.recording = true;
+        long started = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        driver.recording = false;
+        double seconds = (System.nanoTime() - started) / 1e9;
+        driver.running = false;
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+
+        driver.report(seconds);
+    }
+
+    private void runVirtualUser() {
+        try {
+            long id = randomUserId();
+            String cookie = login(SeedManifest.username(id), seed.password());
+            while (running && cookie == null) {
+                // The password hashing pool sheds load with 503 while every virtual user logs in at once.
+                Thread.sleep(1000);
+                cookie = login(SeedManifest.username(id), seed.password());
+            }
+            while (running) {
+                Operation operation = weightedOperations.get(ThreadLocalRandom.current().nextInt(weightedOperations.size()));
+                long started = System.nanoTime();
+                int status;
+                try {
+                    if (operation == Operation.LOGIN) {
+                        HttpResponse<Void> response = send(loginRequest(SeedManifest.username(id), seed.password()));
+                        status = response.statusCode();
+                        if (status == 200) {
+                            cookie = cookies(response);
+                        }
+                    } else {
+                        status = send(request(operation, cookie)).statusCode();
+                    }
+                } catch (IOException e) {
+                    status = NO_RESPONSE;
+                }
+                record(operation, started, status);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            System.err.println("Virtual user stopped: " + e);
+        }
+    }
+
+    private HttpRequest request(Operation operation, String cookie) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return switch (operation) {
+            case SEARCH -> {
+                String name = UserSeeder.LAST_NAMES[random.nextInt(UserSeeder.LAST_NAMES.length)];
+                yield get("/users?size=20&search=" + name.substring(0, 4).toLowerCase(Locale.ROOT), cookie);
+            }
+            case GET_BY_ID -> get("/users/" + randomUserId(), cookie);
+            case PATCH -> patch("/users", cookie);
+            case PATCH_BY_ID -> patch("/users/" + randomUserId(), adminCookie);
+            case LOGIN -> throw new IllegalArgumentException("Logins are sent by the virtual user itself");
+        };
+    }
+
+    private HttpRequest get(String path, String cookie) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Cookie", cookie)
+                .GET()
+                .build();
+    }
+
+    private HttpRequest patch(String path, String cookie) {
+        String firstName = UserSeeder.FIRST_NAMES[ThreadLocalRandom.current().nextInt(UserSeeder.FIRST_NAMES.length)];
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Cookie", cookie)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"firstName\":\"" + firstName + "\"}"))
+                .build();
+    }
+
+    /**
+     * Session cookies of a successful login, or {@code null} if the service was too busy to log in.
+     */
+    private String login(String username, String password) throws IOException, InterruptedException {
+        HttpResponse<Void> response = send(loginRequest(username, password));
+        if (response.statusCode() == 503) {
+            return null;
+        }
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login as " + username + " failed with status " + response.statusCode());
+        }
+        return cookies(response);
+    }
+
+    private HttpRequest loginRequest(String username, String password) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .build();
+    }
+
+    private HttpResponse<Void> send(HttpRequest request) throws IOException, InterruptedException {
+        return client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private static String cookies(HttpResponse<?> response) {
+        return response.headers().allValues("Set-Cookie").stream()
+                .map(header -> header.split(";", 2)[0])
+                .collect(Collectors.joining("; "));
+    }
+
+    private long randomUserId() {
+        return ThreadLocalRandom.current().nextLong(seed.firstId(), seed.lastId() + 1);
+    }
+
+    private void record(Operation operation, long startedNanos, int status) {
+        if (!recording) {
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedNanos);
+        latencies.get(operation).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+        if (status == NO_RESPONSE || status >= 400) {
+            errors.get(operation).increment();
+        }
+    }
+
+    private void report(double seconds) {
+        System.out.printf("%n%-12s %10s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        long total = 0;
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = latencies.get(operation);
+            long count = histogram.getTotalCount();
+            if (count == 0) {
+                continue;
+            }
+            total += count;
+            System.out.printf("%-12s %10d %8d %10.1f %10.2f %10.2f %10.2f %10.2f%n",
+                    operation.key, count, errors.get(operation).sum(), count / seconds,
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue()));
+        }
+        System.out.printf("%-12s %10d %8s %10.1f%n", "total", total, "", total / seconds);
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    enum Operation {
+        LOGIN("login"),
+        SEARCH("search"),
+        GET_BY_ID("get"),
+        PATCH("patch"),
+        PATCH_BY_ID("patch-by-id");
+
+        private final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Map<Operation, Integer> parseMix(String mix) {
+            Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split("=");
+                Operation operation = Arrays.stream(values())
+                        .filter(candidate -> candidate.key.equals(parts[0].trim()))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException("Unknown operation in mix: " + parts[0]));
+                int weight = Integer.parseInt(parts[1].trim());
+                if (weight > 0) {
+                    weights.put(operation, weight);
+                }
+            }
+            return weights;
+        }
+
+        @Override
+        public String toString() {
+            return key;
+        }
+    }
+}
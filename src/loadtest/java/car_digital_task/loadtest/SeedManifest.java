@@ -0,0 +1,43 @@
+package car_digital_task.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.Properties;
+
+/**
+ * What the seeder created, so the load driver can log in as seeded users and address them by id.
+ * Seeded users are named {@code load<id>} and all share one password.
+ */
+record SeedManifest(long firstId, long lastId, String password) {
+
+    static String username(long id) {
+        return "load" + id;
+    }
+
+    void write() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("first-id", String.valueOf(firstId));
+        properties.setProperty("last-id", String.valueOf(lastId));
+        properties.setProperty("password", password);
+        Files.createDirectories(Settings.SEED_MANIFEST.getParent());
+        try (Writer writer = Files.newBufferedWriter(Settings.SEED_MANIFEST)) {
+            properties.store(writer, "Users created by UserSeeder");
+        }
+    }
+
+    static SeedManifest read() throws IOException {
+        if (!Files.exists(Settings.SEED_MANIFEST)) {
+            throw new IllegalStateException("No seeded users found in " + Settings.SEED_MANIFEST + ", run the seeder first");
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(Settings.SEED_MANIFEST)) {
+            properties.load(reader);
+        }
+        return new SeedManifest(
+                Long.parseLong(properties.getProperty("first-id")),
+                Long.parseLong(properties.getProperty("last-id")),
+                properties.getProperty("password"));
+    }
+}
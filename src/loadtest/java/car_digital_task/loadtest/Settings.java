@@ -0,0 +1,44 @@
+package car_digital_task.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Load test settings, read from {@code -Dloadtest.*} system properties. The database connection
+ * falls back to the same environment variables the application uses.
+ */
+final class Settings {
+    static final Path SEED_MANIFEST = Path.of("target", "loadtest", "seed.properties");
+
+    private Settings() {
+    }
+
+    static String get(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+
+    static int getInt(String name, int defaultValue) {
+        return Integer.parseInt(get(name, String.valueOf(defaultValue)));
+    }
+
+    static Duration getSeconds(String name, long defaultValue) {
+        return Duration.ofSeconds(Long.parseLong(get(name, String.valueOf(defaultValue))));
+    }
+
+    static String jdbcUrl() {
+        return get("jdbc-url", "jdbc:postgresql://localhost:5432/" + env("DB_TABLE_NAME", "car-digital-db"));
+    }
+
+    static String dbUsername() {
+        return get("db-username", env("DB_USERNAME", "postgres"));
+    }
+
+    static String dbPassword() {
+        return get("db-password", env("DB_PASSWORD", "password"));
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+}
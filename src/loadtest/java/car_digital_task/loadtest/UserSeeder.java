@@ -0,0 +1,132 @@
+package car_digital_task.loadtest;
+
+import car_digital_task.enums.RoleType;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Fills the users table with synthetic users through {@code COPY}, fast enough for millions of rows.
+ * All users share one password whose hash is computed once, so seeding is bound by the database and
+ * not by BCrypt. Ids are reserved from {@code users_id_seq} as one contiguous block, which lets the
+ * load driver address existing users without looking them up.
+ * <p>
+ * Run against a migrated schema: start the application once before seeding.
+ */
+public class UserSeeder {
+    static final String[] FIRST_NAMES = {
+            "Alexander", "Boris", "Daniela", "Elena", "Georgi", "Hristo", "Ivan", "Kalina", "Lyubomir", "Maria",
+            "Nikolay", "Petar", "Radostina", "Simeon", "Teodora", "Valentin", "Yana", "Zlatko", "Anna", "Dimitar"
+    };
+    static final String[] LAST_NAMES = {
+            "Angelov", "Borisov", "Dimitrov", "Georgiev", "Hristov", "Ivanov", "Kolev", "Lazarov", "Marinov", "Nikolov",
+            "Petrov", "Popov", "Radev", "Stoyanov", "Todorov", "Vasilev", "Yordanov", "Zhelev", "Kostov", "Atanasov"
+    };
+
+    private static final String COPY_SQL = """
+            COPY users (id, username, email, first_name, last_name, birth_date, phone_number, password, is_enabled, role_id, version)
+            FROM STDIN WITH (FORMAT csv)
+            """;
+    private static final int FLUSH_BYTES = 1 << 16;
+
+    public static void main(String[] args) throws Exception {
+        int users = Settings.getInt("users", 1_000_000);
+        int batchSize = Settings.getInt("batch-size", 100_000);
+        String password = Settings.get("password", "loadtest-password");
+        int strength = Settings.getInt("bcrypt-strength", 10);
+        String passwordHash = new BCryptPasswordEncoder(strength).encode(password);
+
+        try (Connection connection = DriverManager.getConnection(Settings.jdbcUrl(), Settings.dbUsername(), Settings.dbPassword())) {
+            long firstId = reserveIds(connection, users);
+            long lastId = firstId + users - 1;
+            System.out.printf("Seeding %,d users with ids %d..%d%n", users, firstId, lastId);
+
+            long started = System.nanoTime();
+            SplittableRandom random = new SplittableRandom(firstId);
+            for (long from = firstId; from <= lastId; from += batchSize) {
+                long to = Math.min(from + batchSize - 1, lastId);
+                copy(connection, from, to, passwordHash, random);
+                System.out.printf("  %,d / %,d%n", to - firstId + 1, users);
+            }
+            double seconds = (System.nanoTime() - started) / 1e9;
+            System.out.printf("Copied %,d users in %.1f s (%,.0f rows/s)%n", users, seconds, users / seconds);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE users");
+            }
+            new SeedManifest(firstId, lastId, password).write();
+            System.out.println("Wrote " + Settings.SEED_MANIFEST);
+        }
+    }
+
+    /**
+     * Moves the sequence past the block in one statement. The block starts one allocation above the
+     * old value, so an application instance fetching the next id pool at the same moment still gets
+     * ids below it.
+     */
+    private static long reserveIds(Connection connection, int count) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("""
+                SELECT setval('users_id_seq', nextval('users_id_seq') + ? + 2 * seq.increment_by) - ? - seq.increment_by + 1
+                FROM pg_sequences seq WHERE seq.sequencename = 'users_id_seq'
+                """)) {
+            statement.setLong(1, count);
+            statement.setLong(2, count);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new IllegalStateException("users_id_seq not found, start the application once to create the schema");
+                }
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private static void copy(Connection connection, long fromId, long toId, String passwordHash, SplittableRandom random)
+            throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        try {
+            StringBuilder rows = new StringBuilder(FLUSH_BYTES + 512);
+            long roleId = RoleType.ROLE_USER.getId();
+            for (long id = fromId; id <= toId; id++) {
+                String username = SeedManifest.username(id);
+                LocalDate birthDate = LocalDate.ofEpochDay(random.nextLong(LocalDate.of(1950, 1, 1).toEpochDay(),
+                        LocalDate.of(2005, 12, 31).toEpochDay()));
+                rows.append(id).append(',')
+                        .append(username).append(',')
+                        .append(username).append("@example.com,")
+                        .append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]).append(',')
+                        .append(LAST_NAMES[random.nextInt(LAST_NAMES.length)]).append(',')
+                        .append(birthDate).append(',')
+                        .append("+1").append(String.format("%013d", id)).append(',')
+                        .append(passwordHash).append(',')
+                        .append("t,")
+                        .append(roleId).append(',')
+                        .append("0\n");
+                if (rows.length() >= FLUSH_BYTES) {
+                    write(copyIn, rows);
+                }
+            }
+            write(copyIn, rows);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+}
@@ -1,11 +1,14 @@
 package car_digital_task.config;
 
+import car_digital_task.services.impl.PasswordHashUpgrader;
 import car_digital_task.services.impl.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
-import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 @RequiredArgsConstructor
@@ -13,12 +16,24 @@ public class ApplicationConfiguration {
     private final UserDetailsServiceImpl userDetailsServiceImpl;
 
     @Bean
-    AuthenticationProvider authenticationProvider() {
-        DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
-
-        authProvider.setUserDetailsService(userDetailsServiceImpl);
-        authProvider.setPasswordEncoder(SecurityConfig.passwordEncoder());
+    PasswordEncoder passwordEncoder(@Value("${security.password.hashing.pool-size}") int poolSize,
+                                    @Value("${security.password.hashing.queue-capacity}") int queueCapacity,
+                                    @Value("${security.password.hashing.timeout}") long timeout,
+                                    @Value("${security.password.bcrypt.strength}") int strength,
+                                    @Value("${security.password.bcrypt.target-time}") long targetTime,
+                                    @Value("${security.password.bcrypt.min-strength}") int minStrength,
+                                    @Value("${security.password.bcrypt.max-strength}") int maxStrength,
+                                    MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        PasswordEncoder bcrypt = strength > 0
+                ? CalibratedBCryptPasswordEncoder.fixed(strength)
+                : CalibratedBCryptPasswordEncoder.calibrate(targetTime, minStrength, maxStrength);
+        return new BoundedPasswordEncoder(bcrypt, threads, queueCapacity, timeout, meterRegistry);
+    }
 
-        return authProvider;
+    @Bean
+    AuthenticationProvider authenticationProvider(PasswordEncoder passwordEncoder,
+                                                  PasswordHashUpgrader passwordHashUpgrader) {
+        return new PasswordUpgradingAuthenticationProvider(userDetailsServiceImpl, passwordEncoder, passwordHashUpgrader);
     }
 }
@@ -0,0 +1,75 @@
+package car_digital_task.config;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder whose work factor is either fixed by configuration or chosen by timing real hashes
+ * on the current machine. A fixed strength is the same on every node, so hashes with any other cost
+ * are re-encoded and can also be made cheaper. A calibrated strength may differ between nodes, so
+ * only weaker hashes are re-encoded; otherwise two nodes would keep re-hashing the same user.
+ */
+@Slf4j
+@Getter
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d\\d)\\$");
+    private static final String CALIBRATION_PASSWORD = "calibration-password";
+    private static final int SAMPLES = 3;
+
+    private final int strength;
+    private final boolean fixed;
+
+    private CalibratedBCryptPasswordEncoder(int strength, boolean fixed) {
+        super(strength);
+        this.strength = strength;
+        this.fixed = fixed;
+    }
+
+    public static CalibratedBCryptPasswordEncoder fixed(int strength) {
+        log.info("Using configured BCrypt strength {}", strength);
+        return new CalibratedBCryptPasswordEncoder(strength, true);
+    }
+
+    public static CalibratedBCryptPasswordEncoder calibrate(long targetMillis, int minStrength, int maxStrength) {
+        int strength = minStrength;
+        long elapsedMillis = measure(minStrength);
+        while (strength < maxStrength) {
+            // Every step doubles the cost, so stop as soon as the next one would exceed the target.
+            if (elapsedMillis * 2 > targetMillis) {
+                break;
+            }
+            strength++;
+            elapsedMillis = measure(strength);
+        }
+        log.info("Using BCrypt strength {} ({} ms per hash, target {} ms)", strength, elapsedMillis, targetMillis);
+        return new CalibratedBCryptPasswordEncoder(strength, false);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        if (!matcher.find()) {
+            return false;
+        }
+        int cost = Integer.parseInt(matcher.group(1));
+        return fixed ? cost != strength : cost < strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(CALIBRATION_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1_000_000;
+    }
+}
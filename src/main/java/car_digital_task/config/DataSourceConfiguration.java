@@ -0,0 +1,80 @@
+package car_digital_task.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class DataSourceConfiguration {
+
+    private static final long REPLICA_CONNECTION_TIMEOUT = 1000;
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                               DataSourceProperties properties,
+                                               ObjectProvider<MeterRegistry> meterRegistry,
+                                               @Value("${datasource.replica.urls}") List<String> urls,
+                                               @Value("${datasource.replica.username}") String username,
+                                               @Value("${datasource.replica.password}") String password,
+                                               @Value("${datasource.replica.max-lag}") long maxLag,
+                                               @Value("${datasource.replica.check-interval}") long checkInterval) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setDriverClassName(properties.determineDriverClassName());
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            replica.setConnectionTimeout(REPLICA_CONNECTION_TIMEOUT);
+            // Let the lag monitor, not the first request, find out that a replica is down.
+            replica.setInitializationFailTimeout(-1);
+            // Only pools that are beans get metrics from Spring Boot, so the replicas are registered here.
+            meterRegistry.ifAvailable(registry -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, maxLag, checkInterval);
+    }
+
+    /**
+     * The routing decision needs the transaction's read-only flag, which is only set after the
+     * transaction manager has begun; the lazy proxy defers fetching the physical connection until the
+     * first statement runs. The outer proxy reports every statement to the query counter.
+     */
+    @Bean
+    @Primary
+    DataSource dataSource(ReplicaRoutingDataSource routingDataSource, QueryCounter queryCounter) {
+        return ProxyDataSourceBuilder.create(new LazyConnectionDataSourceProxy(routingDataSource))
+                .name("users-db")
+                .listener(queryCounter)
+                .build();
+    }
+}
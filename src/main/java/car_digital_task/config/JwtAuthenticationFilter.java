@@ -1,13 +1,20 @@
 package car_digital_task.config;
 
+import car_digital_task.dto.VerifiedToken;
+import car_digital_task.mapper.UserMapper;
+import car_digital_task.services.impl.UserDetailsImpl;
 import car_digital_task.services.interfaces.JwtService;
 import car_digital_task.services.impl.UserDetailsServiceImpl;
+import car_digital_task.services.interfaces.TokenRevocationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -25,14 +32,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final HandlerExceptionResolver handlerExceptionResolver;
     private final JwtService jwtService;
     private final UserDetailsServiceImpl userDetailsService;
-
+    private final TokenRevocationService tokenRevocationService;
+    private final boolean statelessAuthentication;
+    private final Timer jwtVerifyTimer;
 
     public JwtAuthenticationFilter(@Qualifier("handlerExceptionResolver") HandlerExceptionResolver handlerExceptionResolver,
                                    JwtService jwtService,
-                                   UserDetailsServiceImpl userDetailsService) {
+                                   UserDetailsServiceImpl userDetailsService,
+                                   TokenRevocationService tokenRevocationService,
+                                   @Value("${security.jwt.stateless}") boolean statelessAuthentication,
+                                   MeterRegistry meterRegistry) {
         this.handlerExceptionResolver = handlerExceptionResolver;
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.statelessAuthentication = statelessAuthentication;
+        this.jwtVerifyTimer = Timer.builder("auth.jwt.verify")
+                .description("Time to verify the token of a request, including the verified token cache")
+                .register(meterRegistry);
     }
 
     @Override
@@ -41,16 +58,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain) throws ServletException, IOException {
 
-        String jwt = null;
-
-        if (request.getCookies() != null) {
-            for (Cookie cookie : request.getCookies()) {
-                if ("jwt".equals(cookie.getName())) {
-                    jwt = cookie.getValue();
-                    break;
-                }
-            }
-        }
+        String jwt = resolveToken(request);
 
         if (jwt == null) {
             filterChain.doFilter(request, response);
@@ -59,14 +67,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
 
         try {
-            final String userEmail = jwtService.extractUsername(jwt);
+            final VerifiedToken verifiedToken = jwtVerifyTimer.record(() -> jwtService.verifyToken(jwt));
 
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-            if (userEmail != null && authentication == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+            if (verifiedToken.subject() != null && authentication == null
+                    && !tokenRevocationService.isRevoked(verifiedToken)) {
+                UserDetails userDetails = loadUserDetails(verifiedToken);
 
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                if (jwtService.isTokenValid(verifiedToken, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -83,4 +92,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             handlerExceptionResolver.resolveException(request, response, null, exception);
         }
     }
+
+    static String resolveToken(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return null;
+        }
+        for (Cookie cookie : cookies) {
+            if ("jwt".equals(cookie.getName())) {
+                return cookie.getValue();
+            }
+        }
+        return null;
+    }
+
+    private UserDetails loadUserDetails(VerifiedToken verifiedToken) {
+        if (statelessAuthentication && verifiedToken.hasUserClaims()) {
+            return new UserDetailsImpl(UserMapper.toEntity(verifiedToken));
+        }
+        return userDetailsService.loadUserByUsername(verifiedToken.subject());
+    }
 }
@@ -0,0 +1,32 @@
+package car_digital_task.config;
+
+import car_digital_task.services.impl.PasswordHashUpgrader;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * {@link DaoAuthenticationProvider} that upgrades outdated password hashes through
+ * {@link PasswordHashUpgrader}. The built-in upgrade encodes before handing over to the
+ * {@code UserDetailsPasswordService}, so a saturated hashing pool would fail the login it follows.
+ */
+public class PasswordUpgradingAuthenticationProvider extends DaoAuthenticationProvider {
+    private final PasswordHashUpgrader passwordHashUpgrader;
+
+    public PasswordUpgradingAuthenticationProvider(UserDetailsService userDetailsService,
+                                                   PasswordEncoder passwordEncoder,
+                                                   PasswordHashUpgrader passwordHashUpgrader) {
+        super(passwordEncoder);
+        setUserDetailsService(userDetailsService);
+        this.passwordHashUpgrader = passwordHashUpgrader;
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication,
+                                                         UserDetails user) {
+        UserDetails upgraded = passwordHashUpgrader.upgradeEncoding(user, authentication.getCredentials().toString());
+        return super.createSuccessAuthentication(principal, authentication, upgraded);
+    }
+}
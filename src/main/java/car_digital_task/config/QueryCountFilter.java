@@ -0,0 +1,77 @@
+package car_digital_task.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Records how many statements each request ran, tagged like {@code http.server.requests}, and warns
+ * about requests over the statement budget. Runs ahead of the security filters so the user loads
+ * done during authentication are included.
+ */
+@Slf4j
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class QueryCountFilter extends OncePerRequestFilter {
+    private final QueryCounter queryCounter;
+    private final MeterRegistry meterRegistry;
+    private final int statementBudget;
+    private final List<String> excludedPaths;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public QueryCountFilter(QueryCounter queryCounter,
+                            MeterRegistry meterRegistry,
+                            @Value("${datasource.statement-budget.limit}") int statementBudget,
+                            @Value("${datasource.statement-budget.excluded-paths}") List<String> excludedPaths) {
+        this.queryCounter = queryCounter;
+        this.meterRegistry = meterRegistry;
+        this.statementBudget = statementBudget;
+        this.excludedPaths = excludedPaths;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        int budget = isExcluded(request) ? 0 : statementBudget;
+        queryCounter.start(budget);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = queryCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            DistributionSummary.builder("jdbc.statements.per.request")
+                    .description("Number of JDBC statements run for a request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(statements);
+            if (budget > 0 && statements > budget) {
+                log.warn("{} {} ran {} statements, over the budget of {}", request.getMethod(), uri, statements, budget);
+            }
+        }
+    }
+
+    private boolean isExcluded(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return excludedPaths.stream().anyMatch(excluded -> pathMatcher.match(excluded.trim(), path));
+    }
+}
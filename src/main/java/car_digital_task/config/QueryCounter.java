@@ -0,0 +1,89 @@
+package car_digital_task.config;
+
+import car_digital_task.exceptions.StatementBudgetExceededException;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.logging.DefaultQueryLogEntryCreator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Listens to every JDBC statement of the application's data source, whether it comes from Hibernate
+ * or from a {@code JdbcTemplate}. Statements slower than the threshold are logged, and statements run
+ * on the current thread between {@link #start(int)} and {@link #stop()} are counted against a budget.
+ */
+@Slf4j
+@Component
+public class QueryCounter implements QueryExecutionListener {
+    private final ThreadLocal<Budget> budget = new ThreadLocal<>();
+    private final DefaultQueryLogEntryCreator logEntryCreator = new DefaultQueryLogEntryCreator();
+    private final long slowQueryThreshold;
+    private final boolean logParameters;
+    private final boolean failOnExceed;
+
+    public QueryCounter(@Value("${datasource.slow-query.threshold}") long slowQueryThreshold,
+                        @Value("${datasource.slow-query.log-parameters}") boolean logParameters,
+                        @Value("${datasource.statement-budget.fail-on-exceed}") boolean failOnExceed) {
+        this.slowQueryThreshold = slowQueryThreshold;
+        this.logParameters = logParameters;
+        this.failOnExceed = failOnExceed;
+    }
+
+    /**
+     * Starts counting on the current thread; a limit of zero or less only counts.
+     */
+    public void start(int limit) {
+        budget.set(new Budget(limit));
+    }
+
+    public int stop() {
+        Budget current = budget.get();
+        budget.remove();
+        return current == null ? 0 : current.count;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Budget current = budget.get();
+        if (current == null) {
+            return;
+        }
+        current.count++;
+        if (failOnExceed && current.limit > 0 && current.count > current.limit) {
+            throw new StatementBudgetExceededException("Statement budget of " + current.limit
+                    + " exceeded by: " + sql(queryInfoList));
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (execInfo.getElapsedTime() < slowQueryThreshold) {
+            return;
+        }
+        if (logParameters) {
+            log.warn("Slow statement: {}", logEntryCreator.getLogEntry(execInfo, queryInfoList, false, false, false));
+        } else {
+            log.warn("Slow statement ({} ms): {}", execInfo.getElapsedTime(), sql(queryInfoList));
+        }
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream()
+                .map(QueryInfo::getQuery)
+                .collect(Collectors.joining("; "));
+    }
+
+    private static final class Budget {
+        private final int limit;
+        private int count;
+
+        private Budget(int limit) {
+            this.limit = limit;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package car_digital_task.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sends read-only transactions to the replicas, round robin, and everything else to the primary.
+ * A background check measures replication lag; replicas that fall behind by more than {@code maxLag}
+ * or cannot be reached are skipped until they catch up, and with none left reads go to the primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    private static final String PRIMARY = "primary";
+
+    // A replica that has replayed everything it received is current, even if the primary has been idle for a while,
+    // but only while it is still receiving: a standby cut off from the primary has replayed everything too.
+    // NULL marks a standby without a streaming WAL receiver.
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END
+            """;
+
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long maxLag;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ScheduledExecutorService lagMonitor;
+    // Not synchronized: request threads may be virtual, and logging under a monitor would pin their carrier.
+    private final ReentrantLock healthLock = new ReentrantLock();
+
+    private volatile List<Integer> healthyReplicas = List.of();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, long maxLag, long checkInterval) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.maxLag = maxLag;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (int i = 0; i < this.replicas.size(); i++) {
+            targets.put(i, this.replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+
+        if (this.replicas.isEmpty()) {
+            lagMonitor = null;
+        } else {
+            lagMonitor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-lag-monitor");
+                thread.setDaemon(true);
+                return thread;
+            });
+            lagMonitor.scheduleWithFixedDelay(this::checkReplicas, 0, checkInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+        List<Integer> candidates = healthyReplicas;
+        if (candidates.isEmpty()) {
+            return PRIMARY;
+        }
+        return candidates.get(Math.floorMod(nextReplica.getAndIncrement(), candidates.size()));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() instanceof Integer replica) {
+            try {
+                return replicas.get(replica).getConnection();
+            } catch (SQLException e) {
+                // Do not fail the read because a replica went away between two lag checks.
+                markUnavailable(replica, e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public void destroy() {
+        if (lagMonitor != null) {
+            lagMonitor.shutdownNow();
+        }
+        for (DataSource replica : replicas) {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close replica data source", e);
+                }
+            }
+        }
+    }
+
+    private void checkReplicas() {
+        List<Integer> healthy = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            if (isHealthy(i)) {
+                healthy.add(i);
+            }
+        }
+        healthLock.lock();
+        try {
+            if (!healthy.equals(healthyReplicas)) {
+                log.info("Routing read-only transactions to {} of {} replicas", healthy.size(), replicas.size());
+            }
+            healthyReplicas = List.copyOf(healthy);
+        } finally {
+            healthLock.unlock();
+        }
+    }
+
+    private void markUnavailable(int index, SQLException e) {
+        healthLock.lock();
+        try {
+            if (healthyReplicas.contains(index)) {
+                log.warn("Replica {} is unavailable, reading from the primary until it recovers: {}", index, e.getMessage());
+                healthyReplicas = healthyReplicas.stream()
+                        .filter(replica -> replica != index)
+                        .toList();
+            }
+        } finally {
+            healthLock.unlock();
+        }
+    }
+
+    private boolean isHealthy(int index) {
+        try (Connection connection = replicas.get(index).getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+            resultSet.next();
+            double lag = resultSet.getDouble(1);
+            if (resultSet.wasNull()) {
+                log.debug("Replica {} is not streaming from the primary", index);
+                return false;
+            }
+            if (lag > maxLag) {
+                log.debug("Replica {} is {} ms behind the primary", index, (long) lag);
+                return false;
+            }
+            return true;
+        } catch (SQLException e) {
+            log.debug("Replica {} is unavailable: {}", index, e.getMessage());
+            return false;
+        }
+    }
+}
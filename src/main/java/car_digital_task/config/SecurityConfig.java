@@ -1,6 +1,11 @@
 package car_digital_task.config;
 
+import car_digital_task.services.interfaces.TokenRevocationService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.Cookie;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
@@ -13,37 +18,45 @@ import org.springframework.security.config.annotation.authentication.builders.Au
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.util.WebUtils;
 
 @Configuration
 @EnableWebSecurity
 @RequiredArgsConstructor
 public class SecurityConfig {
 
-    private static BCryptPasswordEncoder encoder;
     private final AuthenticationProvider authenticationProvider;
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
-    private final UserDetailsService userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Bean
-    public static BCryptPasswordEncoder passwordEncoder() {
-        if (encoder == null) {
-            encoder = new BCryptPasswordEncoder();
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                  @Value("${server.port}") int serverPort,
+                                                  @Value("${management.server.port}") int managementPort) throws Exception {
+        if (managementPort == serverPort) {
+            throw new IllegalStateException("management.server.port must differ from server.port, "
+                    + "otherwise actuator endpoints are served without authentication on the public port");
         }
-        return encoder;
-    }
+        RequestMatcher actuator = new AndRequestMatcher(
+                EndpointRequest.toAnyEndpoint(),
+                request -> request.getLocalPort() == managementPort);
 
-    @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .authorizeHttpRequests(authorize -> authorize
+                        // Streaming responses finish on an async dispatch of a request that was already authorized.
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        // Actuator is only served on the internal management port, never on the API port.
+                        .requestMatchers(actuator).permitAll()
                         .requestMatchers("/", "/swagger-ui/**", "/v3/api-docs/**").permitAll()
                         .requestMatchers("/auth/**").permitAll()
                         .requestMatchers(HttpMethod.POST,"/users").permitAll()
+                        .requestMatchers(HttpMethod.POST, "/users/import").hasAuthority("ROLE_ADMIN")
+                        .requestMatchers(HttpMethod.GET, "/users/export").hasAuthority("ROLE_ADMIN")
                         .requestMatchers(HttpMethod.GET, "/users", "/users/**").authenticated()
                         .requestMatchers(HttpMethod.PUT, "/users/**").authenticated()
                         .requestMatchers(HttpMethod.PATCH, "/users").authenticated()
@@ -60,6 +73,12 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .logout(logout -> {
                     logout.logoutUrl("/auth/logout")
+                            .addLogoutHandler((request, response, authentication) -> {
+                                Cookie jwtCookie = WebUtils.getCookie(request, "jwt");
+                                if (jwtCookie != null) {
+                                    tokenRevocationService.revokeToken(jwtCookie.getValue());
+                                }
+                            })
                             .deleteCookies("jwt")
                             .invalidateHttpSession(true)
                             .clearAuthentication(true)
@@ -83,7 +102,7 @@ public class SecurityConfig {
     @Bean
     public AuthenticationManager authenticationManager(HttpSecurity http) throws Exception {
         AuthenticationManagerBuilder authBuilder = http.getSharedObject(AuthenticationManagerBuilder.class);
-        authBuilder.userDetailsService(userDetailsService).passwordEncoder(passwordEncoder());
+        authBuilder.authenticationProvider(authenticationProvider);
         return authBuilder.build();
     }
 }
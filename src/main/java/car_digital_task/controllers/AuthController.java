@@ -28,11 +28,4 @@ public class AuthController {
     public void login(@RequestBody LoginRequest loginRequest, HttpServletRequest request, HttpServletResponse response) {
         authService.login(loginRequest, request, response);
     }
-
-    @Operation(summary = "User logout", description = "Terminates the user session")
-    @ApiResponse(responseCode = "200", description = "Successful logout")
-    @PostMapping("/logout")
-    public void logout(HttpServletRequest request, HttpServletResponse response) {
-        authService.logout(request, response);
-    }
 }
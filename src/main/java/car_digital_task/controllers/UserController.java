@@ -1,10 +1,19 @@
 package car_digital_task.controllers;
 
 import car_digital_task.dto.PasswordChangeRequest;
+import car_digital_task.dto.UserBatchGetRequest;
 import car_digital_task.dto.UserCreateRequest;
 import car_digital_task.dto.UserEditRequest;
+import car_digital_task.dto.UserImportReport;
+import car_digital_task.dto.UserLookupResult;
+import car_digital_task.dto.UserPage;
 import car_digital_task.dto.UserResponse;
+import car_digital_task.enums.TotalCountMode;
+import car_digital_task.enums.UserDataFormat;
+import car_digital_task.services.interfaces.UserExportService;
+import car_digital_task.services.interfaces.UserImportService;
 import car_digital_task.services.interfaces.UserService;
+import car_digital_task.utils.ETags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,7 +21,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -22,11 +34,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -34,8 +49,14 @@ import java.util.List;
 @RequestMapping("/users")
 @Tag(name = "User Management", description = "Operations related to user management")
 public class UserController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String HAS_NEXT_HEADER = "X-Has-Next";
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String TEXT_CSV_VALUE = "text/csv";
 
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserExportService userExportService;
 
     @Operation(summary = "Create a new user", description = "Registers a new user in the system")
     @ApiResponse(responseCode = "201", description = "User successfully created")
@@ -47,18 +68,82 @@ public class UserController {
         return ResponseEntity.ok(userService.create(userCreateRequest));
     }
 
+    @Operation(summary = "Import users", description = "(Admin only) Registers users in bulk. The body is streamed "
+            + "either as NDJSON, one user object per line, or as CSV with a header row naming the user fields")
+    @ApiResponse(responseCode = "200", description = "Per-row import report")
+    @ApiResponse(responseCode = "403", description = "Current user is not an admin", content = @Content)
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, TEXT_CSV_VALUE})
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<UserImportReport> importUsers(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body) {
+        UserDataFormat format = MediaType.valueOf(TEXT_CSV_VALUE).includes(contentType)
+                ? UserDataFormat.CSV
+                : UserDataFormat.NDJSON;
+        return ResponseEntity.ok(userImportService.importUsers(body, format));
+    }
+
+    @Operation(summary = "Export users", description = "(Admin only) Streams all users, optionally filtered by the "
+            + "same search as the user listing, as NDJSON or CSV")
+    @ApiResponse(responseCode = "200", description = "Users in the requested format")
+    @ApiResponse(responseCode = "403", description = "Current user is not an admin", content = @Content)
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @Parameter(description = "Search string to filter by first or last name", required = false)
+            @RequestParam(required = false) String search,
+            @Parameter(description = "Output format", required = false)
+            @RequestParam(defaultValue = "NDJSON") UserDataFormat format) {
+        MediaType contentType = format == UserDataFormat.CSV
+                ? MediaType.valueOf(TEXT_CSV_VALUE)
+                : MediaType.APPLICATION_NDJSON;
+        ContentDisposition disposition = ContentDisposition.attachment()
+                .filename("users." + format.name().toLowerCase())
+                .build();
+        StreamingResponseBody body = output -> userExportService.exportUsers(search, format, output);
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, disposition.toString())
+                .body(body);
+    }
+
     @Operation(summary = "Get user by ID", description = "Retrieves user data by given ID")
     @ApiResponse(responseCode = "200", description = "User found and returned")
+    @ApiResponse(responseCode = "304", description = "User has not changed since the ETag given in If-None-Match", content = @Content)
     @ApiResponse(responseCode = "404", description = "User with specified ID not found", content = @Content)
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<UserResponse> getById(
             @Parameter(description = "User ID", required = true)
-            @PathVariable("id") Long id) {
-        return ResponseEntity.ok(userService.getById(id));
+            @PathVariable("id") Long id,
+            @Parameter(description = "ETag of a previously fetched copy of the user", required = false)
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // Revalidation is answered from the cached version, without loading or serializing the user.
+        if (ifNoneMatch != null) {
+            long version = userService.getVersion(id);
+            if (ETags.matchesAny(ifNoneMatch, version)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(ETags.of(version)).build();
+            }
+        }
+        UserResponse user = userService.getById(id);
+        return ResponseEntity.ok().eTag(ETags.of(user.version())).body(user);
+    }
+
+    @Operation(summary = "Get users by IDs", description = "Retrieves up to 1000 users in one call. Results are returned "
+            + "in request order, with found set to false for IDs that do not exist")
+    @ApiResponse(responseCode = "200", description = "One result per requested ID")
+    @ApiResponse(responseCode = "400", description = "No IDs or more than 1000 IDs given", content = @Content)
+    @PostMapping("/batch-get")
+    @ResponseStatus(HttpStatus.OK)
+    public ResponseEntity<List<UserLookupResult>> getByIds(
+            @Parameter(description = "IDs of the users to retrieve", required = true)
+            @Valid @RequestBody UserBatchGetRequest request) {
+        return ResponseEntity.ok(userService.getByIds(request.ids()));
     }
 
-    @Operation(summary = "Get list of users", description = "Returns a list of users with optional search and pagination")
+    @Operation(summary = "Get list of users", description = "Returns a list of users with optional search and pagination. "
+            + "Passing a cursor (empty for the first page) switches to keyset pagination; the cursor of the next page is "
+            + "returned in the " + NEXT_CURSOR_HEADER + " header. Totals are only computed when requested and are "
+            + "returned in the " + TOTAL_COUNT_HEADER + " header")
     @ApiResponse(responseCode = "200", description = "List of users")
     @GetMapping
     @ResponseStatus(HttpStatus.OK)
@@ -68,24 +153,48 @@ public class UserController {
             @Parameter(description = "Page number, starting from 0", required = false)
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size", required = false)
-            @RequestParam(defaultValue = "10") int size) {
-        return ResponseEntity.ok(userService.getUsers(search, page, size));
+            @RequestParam(defaultValue = "10") int size,
+            @Parameter(description = "Continuation token from a previous response, empty for the first page", required = false)
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Whether to return the total number of matching users", required = false)
+            @RequestParam(defaultValue = "NONE") TotalCountMode total) {
+        UserPage userPage = cursor == null
+                ? userService.getUsers(search, page, size, total)
+                : userService.getUsersAfter(search, cursor, size, total);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(pageETag(userPage))
+                .header(HAS_NEXT_HEADER, String.valueOf(userPage.hasNext()));
+        if (userPage.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, userPage.nextCursor());
+        }
+        if (userPage.totalCount() != null) {
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(userPage.totalCount()));
+        }
+        return response.body(userPage.users());
     }
 
-    @Operation(summary = "Edit current logged-in user", description = "Updates fields of the current authenticated user")
+    @Operation(summary = "Edit current logged-in user", description = "Updates fields of the current authenticated user. "
+            + "With If-Match the update only applies if the user still has the given ETag")
     @ApiResponse(responseCode = "200", description = "User successfully updated")
+    @ApiResponse(responseCode = "412", description = "User was modified since the ETag given in If-Match", content = @Content)
     @PatchMapping
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<UserResponse> edit(
             @Parameter(description = "User edit data", required = true)
             @RequestBody UserEditRequest editRequest,
+            @Parameter(description = "ETag the user must still have", required = false)
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
-        return ResponseEntity.ok(userService.updateUser(editRequest, authentication));
+        UserResponse user = userService.updateUser(editRequest, ETags.expectedVersion(ifMatch), authentication);
+        return ResponseEntity.ok().eTag(ETags.of(user.version())).body(user);
     }
 
-    @Operation(summary = "Edit user by ID (admin only)", description = "Admin can update any user's data")
+    @Operation(summary = "Edit user by ID (admin only)", description = "Admin can update any user's data. "
+            + "With If-Match the update only applies if the user still has the given ETag")
     @ApiResponse(responseCode = "200", description = "User successfully updated")
     @ApiResponse(responseCode = "403", description = "Access denied to edit this user", content = @Content)
+    @ApiResponse(responseCode = "412", description = "User was modified since the ETag given in If-Match", content = @Content)
     @PatchMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public ResponseEntity<UserResponse> editUserById(
@@ -93,8 +202,11 @@ public class UserController {
             @PathVariable("id") Long id,
             @Parameter(description = "User edit data", required = true)
             @RequestBody UserEditRequest editRequest,
+            @Parameter(description = "ETag the user must still have", required = false)
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             Authentication authentication) {
-        return ResponseEntity.ok(userService.updateUserById(id, editRequest, authentication));
+        UserResponse user = userService.updateUserById(id, editRequest, ETags.expectedVersion(ifMatch), authentication);
+        return ResponseEntity.ok().eTag(ETags.of(user.version())).body(user);
     }
 
     @Operation(summary = "Change password of current user", description = "Changes password of the currently authenticated user")
@@ -120,4 +232,17 @@ public class UserController {
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Digest of everything the page is built from. Spring answers a matching If-None-Match with 304
+     * before writing the body.
+     */
+    private static String pageETag(UserPage userPage) {
+        StringBuilder content = new StringBuilder();
+        userPage.users().forEach(user -> content.append(user.id()).append(':').append(user.version()).append(','));
+        content.append(userPage.hasNext()).append('|')
+                .append(userPage.nextCursor()).append('|')
+                .append(userPage.totalCount());
+        return ETags.ofDigest(content.toString());
+    }
 }
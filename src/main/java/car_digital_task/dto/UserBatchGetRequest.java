@@ -0,0 +1,14 @@
+package car_digital_task.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record UserBatchGetRequest(
+        @NotEmpty
+        @Size(max = 1000)
+        List<@NotNull Long> ids
+) {
+}
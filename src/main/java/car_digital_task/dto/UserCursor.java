@@ -0,0 +1,44 @@
+package car_digital_task.dto;
+
+import car_digital_task.exceptions.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in the user listing, ordered by last name, birth date and id. Clients only see it as an
+ * opaque token.
+ */
+public record UserCursor(
+        String lastName,
+        LocalDate birthDate,
+        Long id
+) {
+    private static final String SEPARATOR = "|";
+
+    public static UserCursor of(UserResponse user) {
+        return new UserCursor(user.lastName(), user.birthDate(), user.id());
+    }
+
+    public static UserCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The last name goes last because it is the only part that may contain the separator.
+            String[] parts = decoded.split("\\|", 3);
+            if (parts.length != 3) {
+                throw new InvalidRequestException("Invalid cursor");
+            }
+            LocalDate birthDate = parts[1].isEmpty() ? null : LocalDate.parse(parts[1]);
+            return new UserCursor(parts[2], birthDate, Long.parseLong(parts[0]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+    }
+
+    public String encode() {
+        String raw = id + SEPARATOR + (birthDate == null ? "" : birthDate.toString()) + SEPARATOR + lastName;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
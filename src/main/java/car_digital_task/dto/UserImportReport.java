@@ -0,0 +1,10 @@
+package car_digital_task.dto;
+
+import java.util.List;
+
+public record UserImportReport(
+        int created,
+        int failed,
+        List<UserImportResult> results
+) {
+}
@@ -0,0 +1,19 @@
+package car_digital_task.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserImportResult(
+        int line,
+        String username,
+        Long id,
+        String error
+) {
+    public static UserImportResult created(int line, String username, Long id) {
+        return new UserImportResult(line, username, id, null);
+    }
+
+    public static UserImportResult failed(int line, String username, String error) {
+        return new UserImportResult(line, username, null, error);
+    }
+}
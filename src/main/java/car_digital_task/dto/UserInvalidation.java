@@ -0,0 +1,11 @@
+package car_digital_task.dto;
+
+/**
+ * A changed user; {@code tokenGeneration} is set when tokens issued with an older generation must be rejected.
+ */
+public record UserInvalidation(
+        Long id,
+        String username,
+        Long tokenGeneration
+) {
+}
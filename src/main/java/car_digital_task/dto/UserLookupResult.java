@@ -0,0 +1,11 @@
+package car_digital_task.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserLookupResult(
+        Long id,
+        boolean found,
+        UserResponse user
+) {
+}
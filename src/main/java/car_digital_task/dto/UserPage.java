@@ -0,0 +1,11 @@
+package car_digital_task.dto;
+
+import java.util.List;
+
+public record UserPage(
+        List<UserResponse> users,
+        boolean hasNext,
+        String nextCursor,
+        Long totalCount
+) {
+}
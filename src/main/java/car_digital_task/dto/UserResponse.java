@@ -1,5 +1,7 @@
 package car_digital_task.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDate;
 
 public record UserResponse(
@@ -8,6 +10,8 @@ public record UserResponse(
         String lastName,
         String email,
         String phoneNumber,
-        LocalDate birthDate
+        LocalDate birthDate,
+        // Sent as the ETag header rather than in the body.
+        @JsonIgnore Long version
 ) {
 }
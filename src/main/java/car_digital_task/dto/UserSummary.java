@@ -0,0 +1,23 @@
+package car_digital_task.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only projection of the public user columns, used by native queries that cannot select into
+ * {@link UserResponse} with a constructor expression.
+ */
+public interface UserSummary {
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    String getPhoneNumber();
+
+    LocalDate getBirthDate();
+
+    Long getVersion();
+}
@@ -0,0 +1,27 @@
+package car_digital_task.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+public record VerifiedToken(
+        String id,
+        String subject,
+        Long userId,
+        boolean enabled,
+        List<String> roles,
+        Instant issuedAt,
+        Instant expiration,
+        long tokenGeneration
+) {
+    public boolean isExpired() {
+        return expiration.isBefore(Instant.now());
+    }
+
+    /**
+     * Tokens issued before user claims were embedded carry only the subject and must be
+     * resolved against the database.
+     */
+    public boolean hasUserClaims() {
+        return userId != null && !roles.isEmpty();
+    }
+}
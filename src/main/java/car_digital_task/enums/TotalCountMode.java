@@ -0,0 +1,7 @@
+package car_digital_task.enums;
+
+public enum TotalCountMode {
+    NONE,
+    EXACT,
+    ESTIMATE
+}
@@ -0,0 +1,6 @@
+package car_digital_task.enums;
+
+public enum UserDataFormat {
+    NDJSON,
+    CSV
+}
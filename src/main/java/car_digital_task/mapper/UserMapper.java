@@ -1,14 +1,15 @@
 package car_digital_task.mapper;
 
-import car_digital_task.config.SecurityConfig;
 import car_digital_task.dto.UserCreateRequest;
 import car_digital_task.dto.UserResponse;
+import car_digital_task.dto.UserSummary;
+import car_digital_task.dto.VerifiedToken;
 import car_digital_task.enums.RoleType;
 import car_digital_task.models.Role;
 import car_digital_task.models.User;
 
 public class UserMapper {
-    public static User toEntity(UserCreateRequest request) {
+    public static User toEntity(UserCreateRequest request, String encodedPassword) {
 
         RoleType roleUser = RoleType.ROLE_USER;
 
@@ -19,7 +20,7 @@ public class UserMapper {
 
         return User.builder()
                 .username(request.username())
-                .password(SecurityConfig.passwordEncoder().encode(request.password()))
+                .password(encodedPassword)
                 .firstName(request.firstName())
                 .lastName(request.lastName())
                 .phoneNumber(request.phoneNumber())
@@ -30,7 +31,27 @@ public class UserMapper {
                 .build();
     }
 
+    public static User toEntity(VerifiedToken token) {
+        String roleName = token.roles().get(0);
+
+        Role role = Role.builder()
+                .id(RoleType.valueOf(roleName).getId())
+                .name(roleName)
+                .build();
+
+        return User.builder()
+                .id(token.userId())
+                .username(token.subject())
+                .role(role)
+                .isEnabled(token.enabled())
+                .build();
+    }
+
     public static UserResponse toResponse(User user){
-        return new UserResponse(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getPhoneNumber(), user.getBirthDate());
+        return new UserResponse(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getPhoneNumber(), user.getBirthDate(), user.getVersion());
+    }
+
+    public static UserResponse toResponse(UserSummary user) {
+        return new UserResponse(user.getId(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getPhoneNumber(), user.getBirthDate(), user.getVersion());
     }
 }
@@ -1,33 +1,208 @@
 package car_digital_task.repositories;
 
+import car_digital_task.dto.UserResponse;
+import car_digital_task.dto.UserSummary;
 import car_digital_task.models.User;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Makes the driver read exports through a server-side cursor instead of buffering the whole result.
+    String EXPORT_FETCH_SIZE = "1000";
+
     Optional<User> findByUsername(String username);
 
-    Optional<User> findByPhoneNumber(String phoneNumber);
+    @Query("""
+                SELECT new car_digital_task.dto.UserResponse(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.birthDate, u.version)
+                FROM User u WHERE u.id = :id
+            """)
+    Optional<UserResponse> findResponseById(@Param("id") Long id);
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
 
-    @Query("SELECT u FROM User u ORDER BY u.lastName ASC, u.birthDate ASC")
-    Page<User> findAllSorted(Pageable pageable);
+    @Query("""
+                SELECT new car_digital_task.dto.UserResponse(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.birthDate, u.version)
+                FROM User u WHERE u.id IN :ids
+            """)
+    List<UserResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+                SELECT new car_digital_task.dto.UserResponse(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.birthDate, u.version)
+                FROM User u ORDER BY u.lastName ASC, u.birthDate ASC
+            """)
+    Slice<UserResponse> findAllSorted(Pageable pageable);
 
     @Query("""
-                SELECT u FROM User u 
+                SELECT new car_digital_task.dto.UserResponse(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.birthDate, u.version)
+                FROM User u
                 WHERE LOWER(u.firstName) LIKE LOWER(CONCAT('%', :search, '%')) 
                    OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :search, '%'))
                 ORDER BY u.lastName ASC, u.birthDate ASC
             """)
-    Page<User> findAllBySearch(@Param("search") String search, Pageable pageable);
+    Slice<UserResponse> findAllBySearch(@Param("search") String search, Pageable pageable);
+
+    @Query(value = """
+                SELECT u.id, u.first_name AS firstName, u.last_name AS lastName, u.email,
+                       u.phone_number AS phoneNumber, u.birth_date AS birthDate, u.version
+                FROM users u
+                ORDER BY u.last_name, COALESCE(u.birth_date, CAST('infinity' AS date)), u.id
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<UserSummary> findFirstKeysetPage(@Param("limit") int limit);
+
+    @Query(value = """
+                SELECT u.id, u.first_name AS firstName, u.last_name AS lastName, u.email,
+                       u.phone_number AS phoneNumber, u.birth_date AS birthDate, u.version
+                FROM users u
+                WHERE (u.last_name, COALESCE(u.birth_date, CAST('infinity' AS date)), u.id)
+                    > (:lastName, COALESCE(CAST(:birthDate AS date), CAST('infinity' AS date)), :id)
+                ORDER BY u.last_name, COALESCE(u.birth_date, CAST('infinity' AS date)), u.id
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<UserSummary> findKeysetPageAfter(@Param("lastName") String lastName,
+                                          @Param("birthDate") LocalDate birthDate,
+                                          @Param("id") Long id,
+                                          @Param("limit") int limit);
+
+    @Query(value = """
+                SELECT u.id, u.first_name AS firstName, u.last_name AS lastName, u.email,
+                       u.phone_number AS phoneNumber, u.birth_date AS birthDate, u.version
+                FROM users u
+                WHERE LOWER(u.first_name) LIKE LOWER(CONCAT('%', :search, '%'))
+                   OR LOWER(u.last_name) LIKE LOWER(CONCAT('%', :search, '%'))
+                ORDER BY u.last_name, COALESCE(u.birth_date, CAST('infinity' AS date)), u.id
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<UserSummary> findFirstKeysetPageBySearch(@Param("search") String search, @Param("limit") int limit);
+
+    @Query(value = """
+                SELECT u.id, u.first_name AS firstName, u.last_name AS lastName, u.email,
+                       u.phone_number AS phoneNumber, u.birth_date AS birthDate, u.version
+                FROM users u
+                WHERE (LOWER(u.first_name) LIKE LOWER(CONCAT('%', :search, '%'))
+                       OR LOWER(u.last_name) LIKE LOWER(CONCAT('%', :search, '%')))
+                  AND (u.last_name, COALESCE(u.birth_date, CAST('infinity' AS date)), u.id)
+                    > (:lastName, COALESCE(CAST(:birthDate AS date), CAST('infinity' AS date)), :id)
+                ORDER BY u.last_name, COALESCE(u.birth_date, CAST('infinity' AS date)), u.id
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<UserSummary> findKeysetPageAfterBySearch(@Param("search") String search,
+                                                  @Param("lastName") String lastName,
+                                                  @Param("birthDate") LocalDate birthDate,
+                                                  @Param("id") Long id,
+                                                  @Param("limit") int limit);
+
+    @Query(value = """
+                SELECT u.id, u.first_name AS firstName, u.last_name AS lastName, u.email,
+                       u.phone_number AS phoneNumber, u.birth_date AS birthDate, u.version
+                FROM users u
+                WHERE u.first_name ILIKE CONCAT('%', :search, '%')
+                   OR u.last_name ILIKE CONCAT('%', :search, '%')
+                ORDER BY u.last_name, u.birth_date, u.id
+            """, nativeQuery = true)
+    Slice<UserSummary> findAllByTrigramSearch(@Param("search") String search, Pageable pageable);
+
+    @Query(value = """
+                SELECT u.id, u.first_name AS firstName, u.last_name AS lastName, u.email,
+                       u.phone_number AS phoneNumber, u.birth_date AS birthDate, u.version
+                FROM users u
+                WHERE u.first_name ILIKE CONCAT('%', :search, '%')
+                   OR u.last_name ILIKE CONCAT('%', :search, '%')
+                ORDER BY u.last_name, COALESCE(u.birth_date, CAST('infinity' AS date)), u.id
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<UserSummary> findFirstKeysetPageByTrigramSearch(@Param("search") String search, @Param("limit") int limit);
+
+    @Query(value = """
+                SELECT u.id, u.first_name AS firstName, u.last_name AS lastName, u.email,
+                       u.phone_number AS phoneNumber, u.birth_date AS birthDate, u.version
+                FROM users u
+                WHERE (u.first_name ILIKE CONCAT('%', :search, '%')
+                       OR u.last_name ILIKE CONCAT('%', :search, '%'))
+                  AND (u.last_name, COALESCE(u.birth_date, CAST('infinity' AS date)), u.id)
+                    > (:lastName, COALESCE(CAST(:birthDate AS date), CAST('infinity' AS date)), :id)
+                ORDER BY u.last_name, COALESCE(u.birth_date, CAST('infinity' AS date)), u.id
+                LIMIT :limit
+            """, nativeQuery = true)
+    List<UserSummary> findKeysetPageAfterByTrigramSearch(@Param("search") String search,
+                                                         @Param("lastName") String lastName,
+                                                         @Param("birthDate") LocalDate birthDate,
+                                                         @Param("id") Long id,
+                                                         @Param("limit") int limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("""
+                SELECT new car_digital_task.dto.UserResponse(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.birthDate, u.version)
+                FROM User u ORDER BY u.id
+            """)
+    Stream<UserResponse> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query("""
+                SELECT new car_digital_task.dto.UserResponse(u.id, u.firstName, u.lastName, u.email, u.phoneNumber, u.birthDate, u.version)
+                FROM User u
+                WHERE LOWER(u.firstName) LIKE LOWER(CONCAT('%', :search, '%'))
+                   OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :search, '%'))
+                ORDER BY u.id
+            """)
+    Stream<UserResponse> streamAllBySearch(@Param("search") String search);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE))
+    @Query(value = """
+                SELECT u.id, u.first_name AS firstName, u.last_name AS lastName, u.email,
+                       u.phone_number AS phoneNumber, u.birth_date AS birthDate, u.version
+                FROM users u
+                WHERE u.first_name ILIKE CONCAT('%', :search, '%')
+                   OR u.last_name ILIKE CONCAT('%', :search, '%')
+                ORDER BY u.id
+            """, nativeQuery = true)
+    Stream<UserSummary> streamAllByTrigramSearch(@Param("search") String search);
+
+    @Query("""
+                SELECT COUNT(u) FROM User u
+                WHERE LOWER(u.firstName) LIKE LOWER(CONCAT('%', :search, '%'))
+                   OR LOWER(u.lastName) LIKE LOWER(CONCAT('%', :search, '%'))
+            """)
+    long countBySearch(@Param("search") String search);
 
-    boolean existsByEmail(String email);
+    @Query(value = """
+                SELECT COUNT(*) FROM users u
+                WHERE u.first_name ILIKE CONCAT('%', :search, '%')
+                   OR u.last_name ILIKE CONCAT('%', :search, '%')
+            """, nativeQuery = true)
+    long countByTrigramSearch(@Param("search") String search);
 
-    boolean existsByPhoneNumber(String phoneNumber);
+    @Query(value = "SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('users' AS regclass)", nativeQuery = true)
+    long estimateCount();
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')", nativeQuery = true)
+    boolean isTrigramSearchAvailable();
+
+    @Modifying
+    @Transactional
+    // Bulk updates bypass @Version, so the version is bumped here to fail edits that loaded the old row.
+    @Query("""
+                UPDATE User u SET u.password = :newPassword, u.version = u.version + 1
+                WHERE u.id = :id AND u.password = :oldPassword
+            """)
+    int replacePassword(@Param("id") Long id,
+                        @Param("oldPassword") String oldPassword,
+                        @Param("newPassword") String newPassword);
 }
@@ -0,0 +1,41 @@
+package car_digital_task.repositories;
+
+import car_digital_task.models.UserTokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface UserTokenRevocationRepository extends JpaRepository<UserTokenRevocation, String> {
+
+    @Query("SELECT r FROM UserTokenRevocation r WHERE r.expiresAt > :now")
+    List<UserTokenRevocation> findActive(@Param("now") Instant now);
+
+    @Transactional
+    @Query(value = "SELECT nextval('user_token_generations')", nativeQuery = true)
+    long nextTokenGeneration();
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+                INSERT INTO user_token_revocations (username, token_generation, revoked_at, expires_at)
+                VALUES (:username, :tokenGeneration, :revokedAt, :expiresAt)
+                ON CONFLICT (username) DO UPDATE SET token_generation = EXCLUDED.token_generation,
+                    revoked_at = EXCLUDED.revoked_at, expires_at = EXCLUDED.expires_at
+            """, nativeQuery = true)
+    void upsert(@Param("username") String username,
+                @Param("tokenGeneration") long tokenGeneration,
+                @Param("revokedAt") Instant revokedAt,
+                @Param("expiresAt") Instant expiresAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM UserTokenRevocation r WHERE r.expiresAt <= :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -4,9 +4,11 @@ import car_digital_task.dto.LoginRequest;
 import car_digital_task.exceptions.AuthenticationFailedException;
 import car_digital_task.services.interfaces.AuthService;
 import car_digital_task.services.interfaces.JwtService;
+import car_digital_task.services.interfaces.TokenRevocationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseCookie;
@@ -14,26 +16,38 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.web.authentication.logout.SecurityContextLogoutHandler;
 import org.springframework.stereotype.Service;
 
 @Service
-@RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final JwtService jwtService;
+    private final TokenRevocationService tokenRevocationService;
+    private final Timer jwtIssueTimer;
 
     @Value("${security.jwt.expiration-time}")
     private long jwtExpiration;
 
+    public AuthServiceImpl(AuthenticationManager authenticationManager,
+                           JwtService jwtService,
+                           TokenRevocationService tokenRevocationService,
+                           MeterRegistry meterRegistry) {
+        this.authenticationManager = authenticationManager;
+        this.jwtService = jwtService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.jwtIssueTimer = Timer.builder("auth.jwt.issue")
+                .description("Time to sign the token issued on login")
+                .register(meterRegistry);
+    }
+
     @Override
     public void login(LoginRequest loginRequest, HttpServletRequest request, HttpServletResponse response) {
         UserDetails userDetails;
         userDetails = authenticate(loginRequest);
-        String jwtToken = jwtService.generateToken(userDetails);
+        String jwtToken = jwtIssueTimer.record(() -> jwtService.generateToken(
+                userDetails, tokenRevocationService.currentTokenGeneration(userDetails.getUsername())));
         setJwtCookie(request, response, jwtToken);
     }
 
@@ -50,14 +64,6 @@ public class AuthServiceImpl implements AuthService {
         response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
     }
 
-    @Override
-    public void logout(HttpServletRequest request, HttpServletResponse response) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth != null) {
-            new SecurityContextLogoutHandler().logout(request, response, auth);
-        }
-    }
-
     private UserDetails authenticate(LoginRequest loginRequesto) {
         try {
             Authentication authentication = new UsernamePasswordAuthenticationToken(loginRequesto.username().toLowerCase(), loginRequesto.password());
@@ -0,0 +1,134 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.dto.UserInvalidation;
+import car_digital_task.services.interfaces.TokenRevocationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Receives user invalidations and token revocations published by any node through Postgres
+ * {@code LISTEN/NOTIFY} and applies them to the local caches.
+ * <p>
+ * The listener holds its own connection rather than one from the pool, since it stays open for
+ * the lifetime of the application.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "security.cluster-invalidation.enabled", havingValue = "true")
+public class ClusterInvalidationListener {
+    private static final int POLL_TIMEOUT_MILLIS = 5000;
+    private static final long RECONNECT_DELAY_MILLIS = 5000;
+
+    private final UserCacheInvalidator userCacheInvalidator;
+    private final TokenRevocationService tokenRevocationService;
+    private final ObjectMapper objectMapper;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String userChannel;
+    private final String tokenChannel;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public ClusterInvalidationListener(UserCacheInvalidator userCacheInvalidator,
+                                       TokenRevocationService tokenRevocationService,
+                                       ObjectMapper objectMapper,
+                                       @Value("${spring.datasource.url}") String url,
+                                       @Value("${spring.datasource.username}") String username,
+                                       @Value("${spring.datasource.password}") String password,
+                                       @Value("${security.cluster-invalidation.user-channel}") String userChannel,
+                                       @Value("${security.cluster-invalidation.token-channel}") String tokenChannel) {
+        this.userCacheInvalidator = userCacheInvalidator;
+        this.tokenRevocationService = tokenRevocationService;
+        this.objectMapper = objectMapper;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.userChannel = validChannel(userChannel);
+        this.tokenChannel = validChannel(tokenChannel);
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "cluster-invalidation-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        listenerThread.interrupt();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password);
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + userChannel);
+                statement.execute("LISTEN " + tokenChannel);
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                // Notifications sent while we were not listening are lost, so start from a clean state.
+                userCacheInvalidator.applyAll();
+                tokenRevocationService.reload();
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        handle(notification.getName(), notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Lost connection for cluster invalidations, reconnecting", e);
+                    sleepBeforeReconnect();
+                }
+            }
+        }
+    }
+
+    private void handle(String channel, String payload) {
+        if (tokenChannel.equals(channel)) {
+            tokenRevocationService.markRevoked(payload);
+            return;
+        }
+        try {
+            userCacheInvalidator.apply(objectMapper.readValue(payload, UserInvalidation.class));
+        } catch (IOException e) {
+            log.warn("Ignoring malformed user invalidation: {}", payload, e);
+        }
+    }
+
+    private void sleepBeforeReconnect() {
+        try {
+            Thread.sleep(RECONNECT_DELAY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String validChannel(String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid notification channel name: " + channel);
+        }
+        return channel;
+    }
+}
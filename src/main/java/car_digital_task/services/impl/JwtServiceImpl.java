@@ -1,30 +1,68 @@
 package car_digital_task.services.impl;
 
+import car_digital_task.dto.VerifiedToken;
 import car_digital_task.services.interfaces.JwtService;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Header;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
 import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
 import io.jsonwebtoken.security.Keys;
-import lombok.Data;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 @Service
-@Data
+@RequiredArgsConstructor
 public class JwtServiceImpl implements JwtService {
 
+    private static final String ROLES_CLAIM = "roles";
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String ENABLED_CLAIM = "enabled";
+    private static final String TOKEN_GENERATION_CLAIM = "gen";
+
     @Value("${security.jwt.secret-key}")
     private String secretKey;
 
+    @Value("${security.jwt.previous-secret-key:}")
+    private String previousSecretKey;
+
     @Value("${security.jwt.expiration-time}")
     private long jwtExpiration;
 
+    private final VerifiedTokenCache verifiedTokenCache;
+
+    private final AtomicReference<KeyRing> keyRing = new AtomicReference<>();
+
+    // The parser is immutable and thread-safe; the key is resolved per token so rotation does not rebuild it.
+    private final JwtParser jwtParser = Jwts.parser()
+            .keyLocator(this::locateKey)
+            .build();
+
+    @PostConstruct
+    void initSigningKey() {
+        updateSigningKeys(secretKey, previousSecretKey);
+    }
+
     @Override
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -37,21 +75,45 @@ public class JwtServiceImpl implements JwtService {
     }
 
     @Override
-    public String generateToken(UserDetails userDetails) {
+    public String generateToken(UserDetails userDetails, long tokenGeneration) {
+        SigningKey signingKey = keyRing.get().current();
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(ROLES_CLAIM, userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .toList());
+        claims.put(ENABLED_CLAIM, userDetails.isEnabled());
+        claims.put(TOKEN_GENERATION_CLAIM, tokenGeneration);
+        if (userDetails instanceof UserDetailsImpl details) {
+            claims.put(USER_ID_CLAIM, details.getUser().getId());
+        }
+
         return Jwts
                 .builder()
-                .claims(new HashMap<>())
+                .header().keyId(signingKey.id()).and()
+                .claims(claims)
+                .id(UUID.randomUUID().toString())
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSignInKey())
+                .signWith(signingKey.key())
                 .compact();
     }
 
     @Override
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(verifyToken(token), userDetails);
+    }
+
+    @Override
+    public boolean isTokenValid(VerifiedToken token, UserDetails userDetails) {
+        return token.subject().equals(userDetails.getUsername())
+                && userDetails.isEnabled()
+                && !token.isExpired();
+    }
+
+    @Override
+    public VerifiedToken verifyToken(String token) {
+        return verifiedTokenCache.get(token, this::parseToken);
     }
 
     @Override
@@ -61,19 +123,86 @@ public class JwtServiceImpl implements JwtService {
 
     @Override
     public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    @Override
+    public void updateSigningKeys(String currentSecretKey, String previousSecretKey) {
+        KeyRing newRing = new KeyRing(
+                SigningKey.of(currentSecretKey),
+                previousSecretKey == null || previousSecretKey.isBlank() ? null : SigningKey.of(previousSecretKey));
+        KeyRing oldRing = keyRing.getAndSet(newRing);
+        // Tokens signed with a key that dropped out of the ring must be verified again.
+        if (oldRing != null && !newRing.ids().containsAll(oldRing.ids())) {
+            verifiedTokenCache.invalidateAll();
+        }
+    }
+
+    private VerifiedToken parseToken(String token) {
+        Claims claims = getAllClaimsFromToken(token);
+        Boolean enabled = claims.get(ENABLED_CLAIM, Boolean.class);
+        Long tokenGeneration = claims.get(TOKEN_GENERATION_CLAIM, Long.class);
+        return new VerifiedToken(
+                claims.getId(),
+                claims.getSubject(),
+                claims.get(USER_ID_CLAIM, Long.class),
+                enabled == null || enabled,
+                extractRoles(claims),
+                claims.getIssuedAt().toInstant(),
+                claims.getExpiration().toInstant(),
+                tokenGeneration == null ? 0 : tokenGeneration);
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+    private List<String> extractRoles(Claims claims) {
+        List<?> roles = claims.get(ROLES_CLAIM, List.class);
+        if (roles == null) {
+            return List.of();
+        }
+        return roles.stream()
+                .map(String::valueOf)
+                .toList();
+    }
+
+    private Key locateKey(Header header) {
+        KeyRing ring = keyRing.get();
+        if (header instanceof ProtectedHeader protectedHeader
+                && ring.previous() != null
+                && ring.previous().id().equals(protectedHeader.getKeyId())) {
+            return ring.previous().key();
+        }
+        return ring.current().key();
+    }
+
+    /**
+     * Current signing key plus the one it replaced, so tokens issued before a rotation
+     * remain verifiable until they expire.
+     */
+    private record KeyRing(SigningKey current, SigningKey previous) {
+
+        Set<String> ids() {
+            if (previous == null || previous.id().equals(current.id())) {
+                return Set.of(current.id());
+            }
+            return Set.of(current.id(), previous.id());
+        }
+    }
+
+    private record SigningKey(String id, SecretKey key) {
+
+        static SigningKey of(String base64Secret) {
+            byte[] keyBytes = Decoders.BASE64.decode(base64Secret);
+            return new SigningKey(fingerprint(keyBytes), Keys.hmacShaKeyFor(keyBytes));
+        }
+
+        private static String fingerprint(byte[] keyBytes) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(keyBytes);
+                return Encoders.BASE64URL.encode(Arrays.copyOf(digest, 8));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.exceptions.ServiceUnavailableException;
+import car_digital_task.models.User;
+import car_digital_task.repositories.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Re-encodes the password of a successful login when the stored hash has an outdated cost.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PasswordHashUpgrader implements UserDetailsPasswordService {
+    private final UserRepository userRepository;
+    private final UserCacheInvalidator userCacheInvalidator;
+    private final PasswordEncoder passwordEncoder;
+
+    /**
+     * Best effort: when the hashing pool rejects the extra hash the user is returned unchanged and
+     * the upgrade is left to a later login, so an already verified login never fails because of it.
+     */
+    public UserDetails upgradeEncoding(UserDetails userDetails, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(userDetails.getPassword())) {
+            return userDetails;
+        }
+        String newPassword;
+        try {
+            newPassword = passwordEncoder.encode(rawPassword);
+        } catch (ServiceUnavailableException e) {
+            log.debug("Skipping password hash upgrade for {}: {}", userDetails.getUsername(), e.getMessage());
+            return userDetails;
+        }
+        return updatePassword(userDetails, newPassword);
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = ((UserDetailsImpl) userDetails).getUser();
+        // Only replace the hash we verified against, so a concurrent password change is never overwritten.
+        if (userRepository.replacePassword(user.getId(), user.getPassword(), newPassword) > 0) {
+            user.setPassword(newPassword);
+            userCacheInvalidator.invalidate(user);
+        }
+        return userDetails;
+    }
+}
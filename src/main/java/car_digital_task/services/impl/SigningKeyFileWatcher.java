@@ -0,0 +1,87 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.services.interfaces.JwtService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the JWT signing keys from {@code security.jwt.secret-key-file} whenever its contents change,
+ * so every instance mounting the same secret rotates without a restart. The first line is the signing
+ * key, an optional second line the previous key, which is still accepted when verifying tokens.
+ */
+@Slf4j
+@Component
+public class SigningKeyFileWatcher implements DisposableBean {
+    private final JwtService jwtService;
+    private final Path keyFile;
+    private final ScheduledExecutorService reloader;
+
+    private List<String> loadedKeys = List.of();
+
+    public SigningKeyFileWatcher(JwtService jwtService,
+                                 @Value("${security.jwt.secret-key-file}") String keyFile,
+                                 @Value("${security.jwt.secret-key-reload-interval}") long reloadInterval) {
+        this.jwtService = jwtService;
+        if (keyFile.isBlank()) {
+            this.keyFile = null;
+            this.reloader = null;
+            return;
+        }
+        this.keyFile = Path.of(keyFile);
+        // Refuse to start with a missing or invalid key file rather than sign with the fallback key.
+        try {
+            reload();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read JWT signing keys from " + keyFile, e);
+        }
+        this.reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "signing-key-reloader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reloader.scheduleWithFixedDelay(this::reloadQuietly, reloadInterval, reloadInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void destroy() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Keeping the current JWT signing keys, reloading {} failed: {}", keyFile, e.getMessage());
+        }
+    }
+
+    private void reload() throws IOException {
+        List<String> keys = Files.readAllLines(keyFile, StandardCharsets.UTF_8).stream()
+                .map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .toList();
+        if (keys.isEmpty()) {
+            throw new IllegalStateException(keyFile + " contains no signing key");
+        }
+        if (keys.equals(loadedKeys)) {
+            return;
+        }
+        jwtService.updateSigningKeys(keys.get(0), keys.size() > 1 ? keys.get(1) : null);
+        loadedKeys = keys;
+        log.info("Loaded JWT signing keys from {}", keyFile);
+    }
+}
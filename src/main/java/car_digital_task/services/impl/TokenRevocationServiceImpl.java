@@ -0,0 +1,188 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.dto.VerifiedToken;
+import car_digital_task.models.RevokedToken;
+import car_digital_task.repositories.RevokedTokenRepository;
+import car_digital_task.repositories.UserTokenRevocationRepository;
+import car_digital_task.services.interfaces.JwtService;
+import car_digital_task.services.interfaces.TokenRevocationService;
+import car_digital_task.utils.BloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Two kinds of revocation are tracked here:
+ * <ul>
+ *     <li>per user: a token generation drawn from a database sequence, embedded in every token
+ *     issued afterwards; tokens carrying an older generation are rejected. It is persisted in
+ *     {@code user_token_revocations} for the longest possible token lifetime and mirrored in
+ *     memory. Unlike a timestamp cutoff it does not depend on the second-precision {@code iat}
+ *     claim or on the clocks of the nodes agreeing;</li>
+ *     <li>per token: the {@code jti} of tokens revoked on logout, persisted in
+ *     {@code revoked_tokens} and mirrored in a Bloom filter so that the common not-revoked
+ *     case is answered without touching the database.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private final Cache<String, UserRevocation> revokedUsers;
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final UserTokenRevocationRepository userTokenRevocationRepository;
+    private final JwtService jwtService;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration jwtExpiration;
+    private final long expectedRevocations;
+    private final boolean clusterInvalidation;
+    private final String tokenChannel;
+
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicLong insertions = new AtomicLong();
+    private volatile long capacity;
+    private volatile BloomFilter revokedTokens;
+
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository,
+                                      UserTokenRevocationRepository userTokenRevocationRepository,
+                                      JwtService jwtService,
+                                      JdbcTemplate jdbcTemplate,
+                                      @Value("${security.jwt.expiration-time}") long jwtExpiration,
+                                      @Value("${security.jwt.revocation.expected-revocations}") long expectedRevocations,
+                                      @Value("${security.cluster-invalidation.enabled}") boolean clusterInvalidation,
+                                      @Value("${security.cluster-invalidation.token-channel}") String tokenChannel) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.userTokenRevocationRepository = userTokenRevocationRepository;
+        this.jwtService = jwtService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.jwtExpiration = Duration.ofMillis(jwtExpiration);
+        this.expectedRevocations = expectedRevocations;
+        this.clusterInvalidation = clusterInvalidation;
+        this.tokenChannel = tokenChannel;
+        // A generation is only needed until the last token issued before it has expired.
+        this.revokedUsers = Caffeine.newBuilder()
+                .expireAfter(Expiry.writing((String username, UserRevocation revocation) ->
+                        remaining(revocation.expiresAt())))
+                .build();
+    }
+
+    @PostConstruct
+    @Override
+    public void reload() {
+        rebuildLock.lock();
+        try {
+            Instant now = Instant.now();
+            revokedTokenRepository.deleteExpired(now);
+            List<String> activeJtis = revokedTokenRepository.findActiveJtis(now);
+
+            long newCapacity = Math.max(expectedRevocations, activeJtis.size() * 2L);
+            BloomFilter filter = new BloomFilter(newCapacity, FALSE_POSITIVE_PROBABILITY);
+            activeJtis.forEach(filter::put);
+            insertions.set(activeJtis.size());
+            capacity = newCapacity;
+            revokedTokens = filter;
+
+            userTokenRevocationRepository.deleteExpired(now);
+            userTokenRevocationRepository.findActive(now)
+                    .forEach(revocation -> markUserRevoked(revocation.getUsername(),
+                            new UserRevocation(revocation.getTokenGeneration(), revocation.getExpiresAt())));
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    @Override
+    public void revokeToken(String token) {
+        VerifiedToken verifiedToken;
+        try {
+            verifiedToken = jwtService.verifyToken(token);
+        } catch (JwtException e) {
+            // Invalid or expired tokens are already rejected; there is nothing to revoke.
+            return;
+        }
+        if (verifiedToken.id() == null) {
+            return;
+        }
+
+        revokedTokenRepository.save(new RevokedToken(verifiedToken.id(), verifiedToken.expiration()));
+        if (clusterInvalidation) {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, tokenChannel, verifiedToken.id());
+        }
+        markRevoked(verifiedToken.id());
+    }
+
+    @Override
+    public long revokeUserTokens(String username) {
+        long tokenGeneration = userTokenRevocationRepository.nextTokenGeneration();
+        Instant revokedAt = Instant.now();
+        userTokenRevocationRepository.upsert(username, tokenGeneration, revokedAt, revokedAt.plus(jwtExpiration));
+        return tokenGeneration;
+    }
+
+    @Override
+    public void markUserRevoked(String username, long tokenGeneration) {
+        markUserRevoked(username, new UserRevocation(tokenGeneration, Instant.now().plus(jwtExpiration)));
+    }
+
+    /**
+     * Without a recent revocation any generation is accepted, so tokens start at zero and are
+     * still rejected by the next revocation, whose generation comes from a sequence.
+     */
+    @Override
+    public long currentTokenGeneration(String username) {
+        UserRevocation revocation = revokedUsers.getIfPresent(username);
+        return revocation == null ? 0 : revocation.tokenGeneration();
+    }
+
+    @Override
+    public boolean isRevoked(VerifiedToken token) {
+        UserRevocation revocation = revokedUsers.getIfPresent(token.subject());
+        if (revocation != null && token.tokenGeneration() < revocation.tokenGeneration()) {
+            return true;
+        }
+        return token.id() != null
+                && revokedTokens.mightContain(token.id())
+                && revokedTokenRepository.existsById(token.id());
+    }
+
+    @Override
+    public void markRevoked(String tokenId) {
+        rebuildLock.lock();
+        try {
+            revokedTokens.put(tokenId);
+        } finally {
+            rebuildLock.unlock();
+        }
+        // Bloom filters cannot drop entries; once over capacity rebuild from the table, which also purges expired rows.
+        if (insertions.incrementAndGet() > capacity) {
+            log.info("Revoked token filter exceeded {} entries, rebuilding", capacity);
+            reload();
+        }
+    }
+
+    private void markUserRevoked(String username, UserRevocation revocation) {
+        revokedUsers.asMap().merge(username, revocation,
+                (current, revoked) -> revoked.tokenGeneration() > current.tokenGeneration() ? revoked : current);
+    }
+
+    private static Duration remaining(Instant expiresAt) {
+        Duration remaining = Duration.between(Instant.now(), expiresAt);
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    private record UserRevocation(long tokenGeneration, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,103 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.dto.UserInvalidation;
+import car_digital_task.models.User;
+import car_digital_task.services.interfaces.TokenRevocationService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts cached user state once the change that made it stale is committed. Evicting before
+ * the commit would let a concurrent request reload and re-cache the old row.
+ * <p>
+ * When cluster invalidation is enabled the change is also published with {@code pg_notify}
+ * inside the writing transaction, so Postgres delivers it to every node only if it commits.
+ */
+@Component
+public class UserCacheInvalidator {
+    private final UserDetailsServiceImpl userDetailsService;
+    private final UserServiceImpl userService;
+    private final UserVersionCache userVersionCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean clusterInvalidation;
+    private final String channel;
+
+    // Lazy because the user service publishes its changes through this invalidator.
+    public UserCacheInvalidator(UserDetailsServiceImpl userDetailsService,
+                                @Lazy UserServiceImpl userService,
+                                UserVersionCache userVersionCache,
+                                TokenRevocationService tokenRevocationService,
+                                JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                @Value("${security.cluster-invalidation.enabled}") boolean clusterInvalidation,
+                                @Value("${security.cluster-invalidation.user-channel}") String channel) {
+        this.userDetailsService = userDetailsService;
+        this.userService = userService;
+        this.userVersionCache = userVersionCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.clusterInvalidation = clusterInvalidation;
+        this.channel = channel;
+    }
+
+    public void invalidate(User user) {
+        publish(new UserInvalidation(user.getId(), user.getUsername(), null));
+    }
+
+    /**
+     * Persists the new token generation in the writing transaction, so a node that starts later still
+     * rejects the user's older tokens.
+     */
+    public void invalidateAndRevokeTokens(User user) {
+        long tokenGeneration = tokenRevocationService.revokeUserTokens(user.getUsername());
+        publish(new UserInvalidation(user.getId(), user.getUsername(), tokenGeneration));
+    }
+
+    public void apply(UserInvalidation invalidation) {
+        userDetailsService.evict(invalidation.username());
+        userVersionCache.invalidate(invalidation.id());
+        userService.forgetLoad(invalidation.id());
+        if (invalidation.tokenGeneration() != null) {
+            tokenRevocationService.markUserRevoked(invalidation.username(), invalidation.tokenGeneration());
+        }
+    }
+
+    public void applyAll() {
+        userDetailsService.evictAll();
+        userVersionCache.invalidateAll();
+        userService.forgetAllLoads();
+    }
+
+    private void publish(UserInvalidation invalidation) {
+        if (clusterInvalidation) {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, toPayload(invalidation));
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(invalidation);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(invalidation);
+            }
+        });
+    }
+
+    private String toPayload(UserInvalidation invalidation) {
+        try {
+            return objectMapper.writeValueAsString(invalidation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize user invalidation", e);
+        }
+    }
+}
@@ -1,21 +1,63 @@
 package car_digital_task.services.impl;
 
 import car_digital_task.repositories.UserRepository;
-import lombok.RequiredArgsConstructor;
+import car_digital_task.utils.CoalescingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
-@RequiredArgsConstructor
 public class UserDetailsServiceImpl implements UserDetailsService {
     private final UserRepository userRepository;
+    private final CoalescingCache<String, UserDetailsImpl> userDetailsCache;
+    private final Timer userLoadTimer;
+
+    public UserDetailsServiceImpl(UserRepository userRepository,
+                                  @Value("${security.user-cache.max-size}") long maxSize,
+                                  @Value("${security.user-cache.expiration-time}") long expirationTime,
+                                  MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        Cache<String, UserDetailsImpl> users = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expirationTime))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "user-details");
+        this.userDetailsCache = new CoalescingCache<>(users);
+        this.userLoadTimer = Timer.builder("auth.user.load")
+                .description("Time to load the user behind a login or token, including the user cache")
+                .register(meterRegistry);
+    }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws BadCredentialsException {
+        UserDetailsImpl userDetails = userLoadTimer.record(() -> userDetailsCache.get(username, this::findUserDetails));
+        if (userDetails == null) {
+            throw new BadCredentialsException("Invalid credentials");
+        }
+        return userDetails;
+    }
+
+    public void evict(String username) {
+        userDetailsCache.invalidate(username);
+    }
+
+    public void evictAll() {
+        userDetailsCache.invalidateAll();
+    }
+
+    private UserDetailsImpl findUserDetails(String username) {
         return userRepository.findByUsername(username)
                 .map(UserDetailsImpl::new)
-                .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
+                .orElse(null);
     }
 }
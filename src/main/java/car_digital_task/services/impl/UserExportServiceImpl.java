@@ -0,0 +1,55 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.dto.UserResponse;
+import car_digital_task.enums.UserDataFormat;
+import car_digital_task.repositories.UserRepository;
+import car_digital_task.services.interfaces.UserExportService;
+import car_digital_task.utils.UserCsv;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes users to the output as they are read from the database cursor. Rows are selected as
+ * projections, so nothing accumulates in the persistence context and memory use does not depend on
+ * the number of exported users.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserExportServiceImpl implements UserExportService {
+    private final UserRepository userRepository;
+    private final UserSearchEngine userSearchEngine;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportUsers(String search, UserDataFormat format, OutputStream output) throws IOException {
+        ObjectWriter rowWriter;
+        if (format == UserDataFormat.CSV) {
+            rowWriter = UserCsv.responseWriter();
+            output.write(UserCsv.responseHeader());
+        } else {
+            rowWriter = objectMapper.writerFor(UserResponse.class);
+        }
+
+        try (Stream<UserResponse> users = (search == null || search.isBlank())
+                ? userRepository.streamAll()
+                : userSearchEngine.stream(search)) {
+            Iterator<UserResponse> iterator = users.iterator();
+            while (iterator.hasNext()) {
+                output.write(rowWriter.writeValueAsBytes(iterator.next()));
+                if (format == UserDataFormat.NDJSON) {
+                    output.write('\n');
+                }
+            }
+        }
+        output.flush();
+    }
+}
@@ -0,0 +1,303 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.dto.UserCreateRequest;
+import car_digital_task.dto.UserImportReport;
+import car_digital_task.dto.UserImportResult;
+import car_digital_task.enums.UserDataFormat;
+import car_digital_task.exceptions.ServiceUnavailableException;
+import car_digital_task.mapper.UserMapper;
+import car_digital_task.models.User;
+import car_digital_task.repositories.UserRepository;
+import car_digital_task.services.interfaces.UserImportService;
+import car_digital_task.utils.UniqueConstraints;
+import car_digital_task.utils.UserCsv;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Registers users from a stream of NDJSON lines or CSV rows. Rows are parsed and validated one at a
+ * time, hashed in parallel and inserted in batches of {@code batchSize}, one transaction per batch. A
+ * batch that hits a unique constraint is retried row by row so that only the conflicting rows are
+ * reported as failed.
+ * <p>
+ * Hashing goes through the shared, bounded password encoder. When it is saturated the import backs
+ * off and retries, so it slows down under login load instead of failing rows.
+ */
+@Slf4j
+@Service
+public class UserImportServiceImpl implements UserImportService {
+    private static final long MIN_BACKOFF_MILLIS = 50;
+    private static final long MAX_BACKOFF_MILLIS = 1000;
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Semaphore hashingPermits;
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 PasswordEncoder passwordEncoder,
+                                 Validator validator,
+                                 ObjectMapper objectMapper,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${users.import.batch-size}") int batchSize,
+                                 @Value("${users.import.hashing-parallelism}") int hashingParallelism) {
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+
+        // Leave part of the shared hashing pool to logins and registrations while an import runs.
+        this.hashingPermits = new Semaphore(hashingParallelism > 0
+                ? hashingParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    @Override
+    public UserImportReport importUsers(InputStream input, UserDataFormat format) {
+        List<UserImportResult> results = new ArrayList<>();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        Consumer<ImportRow> rows = row -> {
+            if (row.error() != null) {
+                results.add(UserImportResult.failed(row.line(), row.username(), row.error()));
+                return;
+            }
+            batch.add(row);
+            if (batch.size() == batchSize) {
+                results.addAll(importBatch(batch));
+                batch.clear();
+            }
+        };
+
+        try {
+            if (format == UserDataFormat.CSV) {
+                readCsv(input, rows);
+            } else {
+                readNdjson(input, rows);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            results.addAll(importBatch(batch));
+        }
+
+        results.sort(Comparator.comparingInt(UserImportResult::line));
+        int created = (int) results.stream().filter(result -> result.error() == null).count();
+        log.info("Imported {} users, {} rows failed", created, results.size() - created);
+        return new UserImportReport(created, results.size() - created, results);
+    }
+
+    private void readNdjson(InputStream input, Consumer<ImportRow> rows) throws IOException {
+        ObjectReader rowReader = objectMapper.readerFor(UserCreateRequest.class);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            int lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                UserCreateRequest request;
+                try {
+                    request = rowReader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    rows.accept(ImportRow.failed(lineNumber, null, "Malformed row: " + e.getOriginalMessage()));
+                    continue;
+                }
+                rows.accept(validate(lineNumber, request));
+            }
+        }
+    }
+
+    /**
+     * CSV rows are read from the whole document rather than line by line, since quoted values may span
+     * lines. A row that cannot be bound is skipped; input that cannot be tokenized ends the import there.
+     */
+    private void readCsv(InputStream input, Consumer<ImportRow> rows) throws IOException {
+        try (MappingIterator<UserCreateRequest> iterator = UserCsv.readRequests(input)) {
+            while (true) {
+                int lineNumber = iterator.getCurrentLocation().getLineNr();
+                try {
+                    if (!iterator.hasNextValue()) {
+                        return;
+                    }
+                } catch (JsonProcessingException e) {
+                    rows.accept(ImportRow.failed(lineNumber, null, "Malformed row: " + e.getOriginalMessage()));
+                    return;
+                }
+                // Once a row has started the reader sits on its first line, even if the row spans several.
+                lineNumber = iterator.getCurrentLocation().getLineNr();
+                UserCreateRequest request;
+                try {
+                    request = iterator.nextValue();
+                } catch (JsonProcessingException e) {
+                    rows.accept(ImportRow.failed(lineNumber, null, "Malformed row: " + e.getOriginalMessage()));
+                    continue;
+                }
+                rows.accept(validate(lineNumber, request));
+            }
+        }
+    }
+
+    private ImportRow validate(int lineNumber, UserCreateRequest request) {
+        if (request == null) {
+            return ImportRow.failed(lineNumber, null, "Malformed row: no user");
+        }
+
+        String violations = validator.validate(request).stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        if (!violations.isEmpty()) {
+            return ImportRow.failed(lineNumber, request.username(), violations);
+        }
+        return ImportRow.parsed(lineNumber, request);
+    }
+
+    private List<UserImportResult> importBatch(List<ImportRow> rows) {
+        List<UserImportResult> results = new ArrayList<>(rows.size());
+        List<ImportRow> hashed = new ArrayList<>(rows.size());
+        for (ImportRow row : hashPasswords(rows)) {
+            if (row.error() != null) {
+                results.add(UserImportResult.failed(row.line(), row.username(), row.error()));
+            } else {
+                hashed.add(row);
+            }
+        }
+        if (hashed.isEmpty()) {
+            return results;
+        }
+
+        try {
+            List<User> users = transactionTemplate.execute(status -> insert(hashed));
+            for (int i = 0; i < hashed.size(); i++) {
+                results.add(UserImportResult.created(hashed.get(i).line(), hashed.get(i).username(), users.get(i).getId()));
+            }
+        } catch (DataIntegrityViolationException e) {
+            for (ImportRow row : hashed) {
+                results.add(insertSingle(row));
+            }
+        }
+        return results;
+    }
+
+    private List<ImportRow> hashPasswords(List<ImportRow> rows) {
+        // The encoder's own pool does the hashing; these virtual threads only wait for it.
+        try (ExecutorService waiters = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<ImportRow>> futures = rows.stream()
+                    .map(row -> CompletableFuture.supplyAsync(() -> hash(row), waiters))
+                    .toList();
+            try {
+                return futures.stream()
+                        .map(CompletableFuture::join)
+                        .toList();
+            } catch (CompletionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+    }
+
+    private ImportRow hash(ImportRow row) {
+        try {
+            hashingPermits.acquire();
+            try {
+                return row.withPasswordHash(encodeWithBackoff(row.request().password()));
+            } finally {
+                hashingPermits.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing passwords", e);
+        }
+    }
+
+    private String encodeWithBackoff(String password) throws InterruptedException {
+        long backoff = MIN_BACKOFF_MILLIS;
+        while (true) {
+            try {
+                return passwordEncoder.encode(password);
+            } catch (ServiceUnavailableException e) {
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+    }
+
+    private UserImportResult insertSingle(ImportRow row) {
+        try {
+            List<User> users = transactionTemplate.execute(status -> insert(List.of(row)));
+            return UserImportResult.created(row.line(), row.username(), users.get(0).getId());
+        } catch (DataIntegrityViolationException e) {
+            String message = UniqueConstraints.userConflictMessage(e).orElse("User could not be saved");
+            return UserImportResult.failed(row.line(), row.username(), message);
+        }
+    }
+
+    /**
+     * Builds fresh entities on every attempt: ids handed out to a rolled back batch are still set on
+     * its entities and would turn the retry into merges.
+     */
+    private List<User> insert(List<ImportRow> rows) {
+        List<User> users = rows.stream()
+                .map(row -> UserMapper.toEntity(row.request(), row.passwordHash()))
+                .toList();
+        userRepository.saveAll(users);
+        userRepository.flush();
+        // Keep the request-scoped persistence context from growing with every imported batch.
+        entityManager.clear();
+        return users;
+    }
+
+    private record ImportRow(int line, String username, UserCreateRequest request, String passwordHash, String error) {
+
+        static ImportRow parsed(int line, UserCreateRequest request) {
+            return new ImportRow(line, request.username(), request, null, null);
+        }
+
+        static ImportRow failed(int line, String username, String error) {
+            return new ImportRow(line, username, null, null, error);
+        }
+
+        ImportRow withPasswordHash(String passwordHash) {
+            return new ImportRow(line, username, request, passwordHash, null);
+        }
+    }
+}
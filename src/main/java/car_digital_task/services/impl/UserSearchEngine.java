@@ -0,0 +1,75 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.dto.UserCursor;
+import car_digital_task.dto.UserResponse;
+import car_digital_task.dto.UserSummary;
+import car_digital_task.mapper.UserMapper;
+import car_digital_task.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Substring search over first and last names. When the {@code pg_trgm} extension is installed the
+ * search runs as native {@code ILIKE} queries served by the trigram GIN indexes; otherwise it falls
+ * back to the portable {@code LOWER(...) LIKE} queries, which scan the whole table.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserSearchEngine {
+    private final UserRepository userRepository;
+
+    private boolean trigramSearch;
+
+    @PostConstruct
+    void detectTrigramSupport() {
+        try {
+            trigramSearch = userRepository.isTrigramSearchAvailable();
+        } catch (DataAccessException e) {
+            trigramSearch = false;
+        }
+        log.info("User search uses {}", trigramSearch ? "pg_trgm indexes" : "sequential LIKE scans");
+    }
+
+    public Slice<UserResponse> search(String search, int page, int size) {
+        if (trigramSearch) {
+            // The native query orders by columns itself, so the pageable must not carry a sort.
+            return userRepository.findAllByTrigramSearch(search, PageRequest.of(page, size))
+                    .map(UserMapper::toResponse);
+        }
+        return userRepository.findAllBySearch(search, PageRequest.of(page, size, Sort.by("lastName").ascending().and(Sort.by("birthDate").ascending())));
+    }
+
+    public Stream<UserResponse> stream(String search) {
+        return trigramSearch
+                ? userRepository.streamAllByTrigramSearch(search).map(UserMapper::toResponse)
+                : userRepository.streamAllBySearch(search);
+    }
+
+    public long count(String search) {
+        return trigramSearch
+                ? userRepository.countByTrigramSearch(search)
+                : userRepository.countBySearch(search);
+    }
+
+    public List<UserSummary> searchFirst(String search, int limit) {
+        return trigramSearch
+                ? userRepository.findFirstKeysetPageByTrigramSearch(search, limit)
+                : userRepository.findFirstKeysetPageBySearch(search, limit);
+    }
+
+    public List<UserSummary> searchAfter(String search, UserCursor after, int limit) {
+        return trigramSearch
+                ? userRepository.findKeysetPageAfterByTrigramSearch(search, after.lastName(), after.birthDate(), after.id(), limit)
+                : userRepository.findKeysetPageAfterBySearch(search, after.lastName(), after.birthDate(), after.id(), limit);
+    }
+}
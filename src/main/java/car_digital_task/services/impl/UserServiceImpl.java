@@ -1,85 +1,170 @@
 package car_digital_task.services.impl;
 
-import car_digital_task.config.SecurityConfig;
 import car_digital_task.dto.PasswordChangeRequest;
 import car_digital_task.dto.UserCreateRequest;
+import car_digital_task.dto.UserCursor;
 import car_digital_task.dto.UserEditRequest;
+import car_digital_task.dto.UserLookupResult;
+import car_digital_task.dto.UserPage;
 import car_digital_task.dto.UserResponse;
+import car_digital_task.dto.UserSummary;
+import car_digital_task.enums.TotalCountMode;
 import car_digital_task.exceptions.AlreadyExistsException;
 import car_digital_task.exceptions.AuthenticationFailedException;
 import car_digital_task.exceptions.InvalidRequestException;
 import car_digital_task.exceptions.NotFoundException;
+import car_digital_task.exceptions.PreconditionFailedException;
 import car_digital_task.mapper.UserMapper;
 import car_digital_task.models.User;
 import car_digital_task.repositories.UserRepository;
 import car_digital_task.services.interfaces.UserService;
-import jakarta.transaction.Transactional;
+import car_digital_task.utils.SingleFlight;
+import car_digital_task.utils.UniqueConstraints;
 import lombok.RequiredArgsConstructor;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
+    // Keeps each IN list well below the driver's bind parameter limit and the number of distinct query plans low.
+    private static final int LOOKUP_CHUNK_SIZE = 500;
 
     private final UserRepository userRepository;
+    private final UserCacheInvalidator userCacheInvalidator;
+    private final PasswordEncoder passwordEncoder;
+    private final UserSearchEngine userSearchEngine;
+    private final UserVersionCache userVersionCache;
+    private final SingleFlight<Long, Optional<UserResponse>> userByIdLoads = new SingleFlight<>();
 
     @Override
     @Transactional
     public UserResponse create(UserCreateRequest userCreateRequest) {
-        validateUniqueFields(userCreateRequest);
-        User user = UserMapper.toEntity(userCreateRequest);
-        try {
-            userRepository.save(user);
-        } catch (DataIntegrityViolationException e) {
-            throw new AlreadyExistsException("Username or phone number already exists");
-        }
-        return UserMapper.toResponse(user);
+        User user = UserMapper.toEntity(userCreateRequest, passwordEncoder.encode(userCreateRequest.password()));
+        return UserMapper.toResponse(saveOrThrowConflict(user));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public UserResponse getById(Long id) {
-        User user = getUserOrThrow(id);
-        return UserMapper.toResponse(user);
+        return userByIdLoads.execute(id, () -> userRepository.findResponseById(id))
+                .orElseThrow(() -> new NotFoundException("User not found with id: " + id));
+    }
+
+    public void forgetLoad(Long id) {
+        userByIdLoads.forget(id);
+    }
+
+    public void forgetAllLoads() {
+        userByIdLoads.forgetAll();
+    }
+
+    /**
+     * Deliberately not read-only: the version is cached, so it must come from the primary and not from
+     * a replica that has yet to replay the latest edit.
+     */
+    @Override
+    @Transactional
+    public long getVersion(Long id) {
+        Long version = userVersionCache.get(id, key -> userRepository.findVersionById(key).orElse(null));
+        if (version == null) {
+            throw new NotFoundException("User not found with id: " + id);
+        }
+        return version;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserLookupResult> getByIds(List<Long> ids) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Long, UserResponse> usersById = new HashMap<>();
+        for (int from = 0; from < distinctIds.size(); from += LOOKUP_CHUNK_SIZE) {
+            List<Long> chunk = distinctIds.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, distinctIds.size()));
+            userRepository.findResponsesByIdIn(chunk).forEach(user -> usersById.put(user.id(), user));
+        }
+
+        return ids.stream()
+                .map(id -> {
+                    UserResponse user = usersById.get(id);
+                    return new UserLookupResult(id, user != null, user);
+                })
+                .toList();
     }
 
     @Override
-    public List<UserResponse> getUsers(String search, int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("lastName").ascending().and(Sort.by("birthDate").ascending()));
-        Page<User> userPage;
+    @Transactional(readOnly = true)
+    public UserPage getUsers(String search, int page, int size, TotalCountMode totalCountMode) {
+        Slice<UserResponse> userSlice;
 
-        List<User> userList;
         if (search == null || search.isBlank()) {
-            userPage = userRepository.findAllSorted(pageable);
+            Pageable pageable = PageRequest.of(page, size, Sort.by("lastName").ascending().and(Sort.by("birthDate").ascending()));
+            userSlice = userRepository.findAllSorted(pageable);
         } else {
-            userPage = userRepository.findAllBySearch(search, pageable);
+            userSlice = userSearchEngine.search(search, page, size);
         }
-        return userPage.map(UserMapper::toResponse).toList();
+        return new UserPage(userSlice.getContent(), userSlice.hasNext(), null, countUsers(search, totalCountMode));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserPage getUsersAfter(String search, String cursor, int size, TotalCountMode totalCountMode) {
+        if (size < 1) {
+            throw new InvalidRequestException("Page size must be at least 1");
+        }
+        UserCursor after = (cursor == null || cursor.isBlank()) ? null : UserCursor.decode(cursor);
+        boolean hasSearch = search != null && !search.isBlank();
+        // One extra row tells whether another page follows without a separate count.
+        int limit = size + 1;
+
+        List<UserSummary> users;
+        if (after == null) {
+            users = hasSearch
+                    ? userSearchEngine.searchFirst(search, limit)
+                    : userRepository.findFirstKeysetPage(limit);
+        } else {
+            users = hasSearch
+                    ? userSearchEngine.searchAfter(search, after, limit)
+                    : userRepository.findKeysetPageAfter(after.lastName(), after.birthDate(), after.id(), limit);
+        }
+
+        List<UserResponse> page = users.stream()
+                .limit(size)
+                .map(UserMapper::toResponse)
+                .toList();
+        boolean hasNext = users.size() > size;
+        String nextCursor = hasNext ? UserCursor.of(page.get(page.size() - 1)).encode() : null;
+        return new UserPage(page, hasNext, nextCursor, countUsers(search, totalCountMode));
     }
 
     @Override
     @Transactional
-    public UserResponse updateUser(UserEditRequest editRequest, Authentication authentication) {
+    public UserResponse updateUser(UserEditRequest editRequest, Long expectedVersion, Authentication authentication) {
         User user = getCurrentUserOrThrow(authentication);
-        updateChanges(user, editRequest);
-        return UserMapper.toResponse(userRepository.save(user));
+        return saveChanges(user, editRequest, expectedVersion);
     }
 
     @Override
     @Transactional
-    public UserResponse updateUserById(Long id, UserEditRequest editRequest, Authentication authentication) {
+    public UserResponse updateUserById(Long id, UserEditRequest editRequest, Long expectedVersion, Authentication authentication) {
         User user = getUserOrThrow(id);
-        updateChanges(user, editRequest);
-        return UserMapper.toResponse(userRepository.save(user));
+        return saveChanges(user, editRequest, expectedVersion);
     }
 
     @Override
@@ -89,8 +174,9 @@ public class UserServiceImpl implements UserService {
         if (!Objects.equals(request.password(), request.repeatPassword())) {
             throw new InvalidRequestException("Password and repeated password do not match!");
         }
-        user.setPassword(SecurityConfig.passwordEncoder().encode(request.password()));
+        user.setPassword(passwordEncoder.encode(request.password()));
         userRepository.save(user);
+        userCacheInvalidator.invalidateAndRevokeTokens(user);
     }
 
     @Override
@@ -98,6 +184,40 @@ public class UserServiceImpl implements UserService {
     public void deleteUser(Long id) {
         User user = getUserOrThrow(id);
         userRepository.delete(user);
+        userCacheInvalidator.invalidateAndRevokeTokens(user);
+    }
+
+    private Long countUsers(String search, TotalCountMode totalCountMode) {
+        boolean hasSearch = search != null && !search.isBlank();
+        return switch (totalCountMode) {
+            case NONE -> null;
+            case EXACT -> hasSearch ? userSearchEngine.count(search) : userRepository.count();
+            case ESTIMATE -> {
+                // Planner statistics only cover the whole table, and are negative before the first ANALYZE.
+                long estimate = hasSearch ? -1 : userRepository.estimateCount();
+                yield estimate >= 0 ? estimate : countUsers(search, TotalCountMode.EXACT);
+            }
+        };
+    }
+
+    /**
+     * Checks the version the client last saw up front, while the flush checks it once more against
+     * edits committed after the row was loaded.
+     */
+    private UserResponse saveChanges(User user, UserEditRequest editRequest, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw new PreconditionFailedException("User has been modified since version " + expectedVersion);
+        }
+        updateChanges(user, editRequest);
+        userCacheInvalidator.invalidate(user);
+        try {
+            return UserMapper.toResponse(saveOrThrowConflict(user));
+        } catch (OptimisticLockingFailureException e) {
+            if (expectedVersion != null) {
+                throw new PreconditionFailedException("User has been modified since version " + expectedVersion);
+            }
+            throw e;
+        }
     }
 
     private void updateChanges(User user, UserEditRequest request) {
@@ -108,11 +228,18 @@ public class UserServiceImpl implements UserService {
         updateEmail(user, request.email());
     }
 
-    private boolean doesEmailExist(String email) {
-        if (userRepository.existsByEmail(email)) {
-            throw new AlreadyExistsException("This email is already registered!");
+    /**
+     * Relies on the named unique constraints instead of checking each field up front, so a conflict
+     * costs no extra round trips and concurrent requests cannot both pass the check.
+     */
+    private User saveOrThrowConflict(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw UniqueConstraints.userConflictMessage(e)
+                    .map(AlreadyExistsException::new)
+                    .orElseThrow(() -> e);
         }
-        return false;
     }
 
     private User getUserOrThrow(Long id) {
@@ -134,15 +261,6 @@ public class UserServiceImpl implements UserService {
                 new NotFoundException("User with username: " + username + " not found"));
     }
 
-    private void validateUniqueFields(UserCreateRequest request) {
-        if (userRepository.findByUsername(request.username()).isPresent()) {
-            throw new AlreadyExistsException("Username is already taken");
-        }
-        if (userRepository.findByPhoneNumber(request.phoneNumber()).isPresent()) {
-            throw new AlreadyExistsException("This phone number is already taken");
-        }
-    }
-
     private void updateFirstName(User user, String firstName) {
         if (firstName != null) {
             user.setFirstName(firstName);
@@ -162,19 +280,13 @@ public class UserServiceImpl implements UserService {
     }
 
     private void updatePhoneNumber(User user, String phoneNumber) {
-        if (phoneNumber != null && !phoneNumber.equals(user.getPhoneNumber())) {
-            if (userRepository.existsByPhoneNumber(phoneNumber)) {
-                throw new AlreadyExistsException("This phone number is already registered");
-            }
+        if (phoneNumber != null) {
             user.setPhoneNumber(phoneNumber);
         }
     }
 
     private void updateEmail(User user, String email) {
-        if (email != null && !email.equals(user.getEmail())) {
-            if (doesEmailExist(email)) {
-                throw new AlreadyExistsException("This email is already registered");
-            }
+        if (email != null) {
             user.setEmail(email);
         }
     }
@@ -0,0 +1,45 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.utils.CoalescingCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Current version of each recently requested user, so conditional requests can be answered without
+ * loading the row. Entries are evicted with the rest of the cached user state once an edit commits.
+ */
+@Component
+public class UserVersionCache {
+    private final CoalescingCache<Long, Long> cache;
+
+    public UserVersionCache(@Value("${users.version-cache.max-size}") long maxSize,
+                            @Value("${users.version-cache.expiration-time}") long expirationTime,
+                            MeterRegistry meterRegistry) {
+        Cache<Long, Long> versions = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(expirationTime))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, versions, "user-versions");
+        this.cache = new CoalescingCache<>(versions);
+    }
+
+    public Long get(Long id, Function<Long, Long> loader) {
+        return cache.get(id, loader);
+    }
+
+    public void invalidate(Long id) {
+        cache.invalidate(id);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
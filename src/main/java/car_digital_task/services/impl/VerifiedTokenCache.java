@@ -0,0 +1,49 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.dto.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of already verified tokens. Entries expire at the token's own {@code exp},
+ * so a cached token is never accepted for longer than a freshly parsed one would be.
+ */
+@Component
+public class VerifiedTokenCache {
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(@Value("${security.jwt.cache.max-size}") long maxSize, MeterRegistry meterRegistry) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.creating((String token, VerifiedToken verified) -> timeToExpiry(verified)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "verified-tokens");
+    }
+
+    public VerifiedToken get(String token, Function<String, VerifiedToken> verifier) {
+        return cache.get(token, verifier);
+    }
+
+    public void invalidate(String token) {
+        cache.invalidate(token);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static Duration timeToExpiry(VerifiedToken verified) {
+        Duration remaining = Duration.between(Instant.now(), verified.expiration());
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+}
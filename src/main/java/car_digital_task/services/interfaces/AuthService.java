@@ -9,6 +9,4 @@ public interface AuthService {
     void login(LoginRequest loginRequest, HttpServletRequest request, HttpServletResponse response);
 
     void setJwtCookie(HttpServletRequest request, HttpServletResponse response, String jwtToken);
-
-    void logout(HttpServletRequest request, HttpServletResponse response);
 }
@@ -1,5 +1,6 @@
 package car_digital_task.services.interfaces;
 
+import car_digital_task.dto.VerifiedToken;
 import io.jsonwebtoken.Claims;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -12,11 +13,17 @@ public interface JwtService {
 
     <T> T extractClaim(String token, Function<Claims, T> claimsResolver);
 
-    String generateToken(UserDetails userDetails);
+    String generateToken(UserDetails userDetails, long tokenGeneration);
 
     boolean isTokenValid(String token, UserDetails userDetails);
 
+    boolean isTokenValid(VerifiedToken token, UserDetails userDetails);
+
+    VerifiedToken verifyToken(String token);
+
     Date extractExpiration(String token);
 
     Claims getAllClaimsFromToken(String token);
+
+    void updateSigningKeys(String currentSecretKey, String previousSecretKey);
 }
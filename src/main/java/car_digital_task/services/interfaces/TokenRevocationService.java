@@ -0,0 +1,20 @@
+package car_digital_task.services.interfaces;
+
+import car_digital_task.dto.VerifiedToken;
+
+public interface TokenRevocationService {
+
+    void revokeToken(String token);
+
+    long revokeUserTokens(String username);
+
+    void markUserRevoked(String username, long tokenGeneration);
+
+    long currentTokenGeneration(String username);
+
+    boolean isRevoked(VerifiedToken token);
+
+    void markRevoked(String tokenId);
+
+    void reload();
+}
@@ -0,0 +1,10 @@
+package car_digital_task.services.interfaces;
+
+import car_digital_task.enums.UserDataFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+public interface UserExportService {
+    void exportUsers(String search, UserDataFormat format, OutputStream output) throws IOException;
+}
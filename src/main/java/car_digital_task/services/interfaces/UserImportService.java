@@ -0,0 +1,10 @@
+package car_digital_task.services.interfaces;
+
+import car_digital_task.dto.UserImportReport;
+import car_digital_task.enums.UserDataFormat;
+
+import java.io.InputStream;
+
+public interface UserImportService {
+    UserImportReport importUsers(InputStream input, UserDataFormat format);
+}
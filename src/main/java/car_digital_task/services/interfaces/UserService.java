@@ -3,7 +3,10 @@ package car_digital_task.services.interfaces;
 import car_digital_task.dto.PasswordChangeRequest;
 import car_digital_task.dto.UserCreateRequest;
 import car_digital_task.dto.UserEditRequest;
+import car_digital_task.dto.UserLookupResult;
+import car_digital_task.dto.UserPage;
 import car_digital_task.dto.UserResponse;
+import car_digital_task.enums.TotalCountMode;
 import org.springframework.security.core.Authentication;
 
 import java.util.List;
@@ -14,11 +17,17 @@ public interface UserService {
 
     UserResponse getById(Long id);
 
-    List<UserResponse> getUsers(String search, int page, int size);
+    long getVersion(Long id);
 
-    UserResponse updateUser(UserEditRequest editRequest, Authentication authentication);
+    List<UserLookupResult> getByIds(List<Long> ids);
 
-    UserResponse updateUserById(Long id, UserEditRequest editRequest, Authentication authentication);
+    UserPage getUsers(String search, int page, int size, TotalCountMode totalCountMode);
+
+    UserPage getUsersAfter(String search, String cursor, int size, TotalCountMode totalCountMode);
+
+    UserResponse updateUser(UserEditRequest editRequest, Long expectedVersion, Authentication authentication);
+
+    UserResponse updateUserById(Long id, UserEditRequest editRequest, Long expectedVersion, Authentication authentication);
 
     void changePassword(PasswordChangeRequest request, Authentication authentication);
 
@@ -0,0 +1,51 @@
+package car_digital_task.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caffeine cache whose misses are loaded through a {@link SingleFlight} instead of the cache's own
+ * compute, so concurrent misses for one key share a single load without blocking loads of other keys.
+ * A load that overlapped an invalidation is returned to its callers but not cached, since it may have
+ * read the data before the change that caused the invalidation. {@code null} results are not cached.
+ */
+public class CoalescingCache<K, V> {
+    private final Cache<K, V> cache;
+    private final SingleFlight<K, V> loads = new SingleFlight<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public CoalescingCache(Cache<K, V> cache) {
+        this.cache = cache;
+    }
+
+    public V get(K key, Function<K, V> loader) {
+        V value = cache.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        return loads.execute(key, () -> loadAndCache(key, loader));
+    }
+
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+        cache.invalidate(key);
+        loads.forget(key);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+        loads.forgetAll();
+    }
+
+    private V loadAndCache(K key, Function<K, V> loader) {
+        long invalidationsBefore = invalidations.get();
+        V value = loader.apply(key);
+        if (value != null && invalidations.get() == invalidationsBefore) {
+            cache.put(key, value);
+        }
+        return value;
+    }
+}
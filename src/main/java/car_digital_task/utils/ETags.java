@@ -0,0 +1,65 @@
+package car_digital_task.utils;
+
+import car_digital_task.exceptions.PreconditionFailedException;
+import org.springframework.http.ETag;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Strong entity tags derived from the optimistic locking version of a row, or from a digest of the
+ * versions behind a composed response.
+ */
+public class ETags {
+
+    private ETags() {
+    }
+
+    public static String of(long version) {
+        return "\"" + version + "\"";
+    }
+
+    public static String ofDigest(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Weak comparison, as {@code If-None-Match} requires, of every tag in the header against the version.
+     */
+    public static boolean matchesAny(String ifNoneMatch, long version) {
+        ETag current = ETag.create(of(version));
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(tag -> tag.isWildcard() || tag.compare(current, false));
+    }
+
+    /**
+     * Version an {@code If-Match} header requires, or {@code null} when it is absent or {@code *}. Weak
+     * tags never match under the strong comparison {@code If-Match} uses, so they fail like stale ones.
+     */
+    public static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) {
+            return null;
+        }
+        List<ETag> tags = ETag.parse(ifMatch);
+        if (tags.size() == 1 && tags.get(0).isWildcard()) {
+            return null;
+        }
+        if (tags.size() != 1 || tags.get(0).weak()) {
+            throw new PreconditionFailedException("If-Match must contain a single strong ETag of the user");
+        }
+        try {
+            return Long.parseLong(tags.get(0).tag());
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current version of the user");
+        }
+    }
+}
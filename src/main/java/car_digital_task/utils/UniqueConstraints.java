@@ -0,0 +1,28 @@
+package car_digital_task.utils;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Translates violations of the named unique constraints on {@code users} into the message shown to
+ * the client, so conflicts can be detected by the insert itself instead of a lookup beforehand.
+ */
+public class UniqueConstraints {
+    private static final Map<String, String> USER_CONFLICT_MESSAGES = Map.of(
+            "uk_users_username", "Username is already taken",
+            "uk_users_phone_number", "This phone number is already registered",
+            "uk_users_email", "This email is already registered");
+
+    private UniqueConstraints() {
+    }
+
+    public static Optional<String> userConflictMessage(DataIntegrityViolationException e) {
+        if (e.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+            return Optional.ofNullable(USER_CONFLICT_MESSAGES.get(violation.getConstraintName().toLowerCase()));
+        }
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,72 @@
+package car_digital_task.utils;
+
+import car_digital_task.dto.UserCreateRequest;
+import car_digital_task.dto.UserResponse;
+import car_digital_task.exceptions.InvalidRequestException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV readers and writers for user rows. The mapper is deliberately not a bean: a second
+ * {@code ObjectMapper} in the context would replace the one Spring Boot configures for JSON.
+ */
+public class UserCsv {
+    private static final CsvMapper MAPPER = CsvMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private static final CsvSchema RESPONSE_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("firstName")
+            .addColumn("lastName")
+            .addColumn("email")
+            .addColumn("phoneNumber")
+            .addColumn("birthDate")
+            .build();
+
+    private static final ObjectReader REQUEST_READER = MAPPER.readerFor(UserCreateRequest.class)
+            .with(CsvSchema.emptySchema().withHeader())
+            .with(CsvParser.Feature.TRIM_SPACES)
+            .with(CsvParser.Feature.SKIP_EMPTY_LINES);
+
+    private UserCsv() {
+    }
+
+    /**
+     * Streams the rows of a whole CSV document whose columns are named by its header row. Quoted
+     * values may contain commas and line breaks, as written by {@link #responseWriter()}.
+     */
+    public static MappingIterator<UserCreateRequest> readRequests(InputStream input) throws IOException {
+        try {
+            // Reading the first token consumes the header row.
+            return REQUEST_READER.readValues(input);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException("CSV input must start with a header row: " + e.getOriginalMessage());
+        }
+    }
+
+    public static byte[] responseHeader() {
+        return (String.join(",", RESPONSE_SCHEMA.getColumnNames()) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writer for single data lines, each terminated by a line separator, without the header.
+     */
+    public static ObjectWriter responseWriter() {
+        return MAPPER.writerFor(UserResponse.class).with(RESPONSE_SCHEMA);
+    }
+}
@@ -0,0 +1 @@
+CREATE INDEX idx_users_keyset ON users (last_name, (COALESCE(birth_date, 'infinity'::date)), id);
@@ -0,0 +1,3 @@
+ALTER TABLE users RENAME CONSTRAINT users_username_key TO uk_users_username;
+ALTER TABLE users RENAME CONSTRAINT users_phone_number_key TO uk_users_phone_number;
+ALTER TABLE users ADD CONSTRAINT uk_users_email UNIQUE (email);
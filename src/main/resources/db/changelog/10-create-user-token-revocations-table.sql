@@ -0,0 +1,7 @@
+CREATE TABLE user_token_revocations (
+    username VARCHAR(255) PRIMARY KEY,
+    revoked_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_user_token_revocations_expires_at ON user_token_revocations (expires_at);
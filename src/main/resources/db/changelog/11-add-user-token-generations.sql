@@ -0,0 +1,5 @@
+CREATE SEQUENCE user_token_generations;
+
+ALTER TABLE user_token_revocations ADD COLUMN token_generation BIGINT NOT NULL DEFAULT 0;
+
+UPDATE user_token_revocations SET token_generation = nextval('user_token_generations');
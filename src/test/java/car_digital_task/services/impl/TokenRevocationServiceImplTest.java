@@ -0,0 +1,73 @@
+package car_digital_task.services.impl;
+
+import car_digital_task.dto.VerifiedToken;
+import car_digital_task.enums.RoleType;
+import car_digital_task.models.Role;
+import car_digital_task.models.User;
+import car_digital_task.repositories.RevokedTokenRepository;
+import car_digital_task.repositories.UserTokenRevocationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceImplTest {
+    private static final String SECRET_KEY = "c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0c2VjcmV0";
+
+    private final UserTokenRevocationRepository userTokenRevocationRepository = mock(UserTokenRevocationRepository.class);
+
+    private JwtServiceImpl jwtService;
+    private TokenRevocationServiceImpl tokenRevocationService;
+    private UserDetailsImpl userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtService = new JwtServiceImpl(new VerifiedTokenCache(100, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(jwtService, "secretKey", SECRET_KEY);
+        ReflectionTestUtils.setField(jwtService, "jwtExpiration", 3_600_000L);
+        jwtService.initSigningKey();
+
+        tokenRevocationService = new TokenRevocationServiceImpl(mock(RevokedTokenRepository.class),
+                userTokenRevocationRepository, jwtService, mock(JdbcTemplate.class), 3_600_000L, 100, false, "tokens");
+        tokenRevocationService.reload();
+
+        RoleType roleType = RoleType.ROLE_USER;
+        userDetails = new UserDetailsImpl(User.builder()
+                .id(42L)
+                .username("revoked.user")
+                .role(Role.builder().id(roleType.getId()).name(roleType.name()).build())
+                .isEnabled(true)
+                .build());
+    }
+
+    @Test
+    void loginInTheSameSecondAsTheRevocationIsAccepted() {
+        VerifiedToken beforeRevocation = login();
+
+        when(userTokenRevocationRepository.nextTokenGeneration()).thenReturn(7L);
+        long tokenGeneration = tokenRevocationService.revokeUserTokens(userDetails.getUsername());
+        tokenRevocationService.markUserRevoked(userDetails.getUsername(), tokenGeneration);
+        VerifiedToken afterRevocation = login();
+
+        assertThat(tokenRevocationService.isRevoked(beforeRevocation)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(afterRevocation)).isFalse();
+    }
+
+    @Test
+    void olderGenerationDoesNotReplaceNewerOne() {
+        tokenRevocationService.markUserRevoked(userDetails.getUsername(), 7);
+        tokenRevocationService.markUserRevoked(userDetails.getUsername(), 3);
+
+        assertThat(tokenRevocationService.currentTokenGeneration(userDetails.getUsername())).isEqualTo(7);
+    }
+
+    private VerifiedToken login() {
+        long tokenGeneration = tokenRevocationService.currentTokenGeneration(userDetails.getUsername());
+        return jwtService.verifyToken(jwtService.generateToken(userDetails, tokenGeneration));
+    }
+}